@@ -0,0 +1,94 @@
+package com.regionvision.benchmarks;
+
+import com.regionvision.managers.PermanentRegionManager;
+import com.regionvision.utils.RegionQueryService;
+import com.regionvision.utils.RegionTransitionTracker;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Color;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Stand-ins for the server types the benchmarked code touches.
+ * <p>
+ * The services are built the way they are without a server: the query service is fed regions
+ * through {@link RegionQueryService#update} and the permanent region manager is
+ * {@link PermanentRegionManager#detached detached}. Players and worlds are proxies answering the
+ * few calls the code makes.
+ */
+final class Fixtures {
+
+    static final String WORLD = "world";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Non-overlapping-ish cuboids of 8 to 64 blocks, spread over a square of the given extent.
+     */
+    static List<ProtectedRegion> randomRegions(int count, int extent, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ProtectedRegion> regions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(extent) - extent / 2;
+            int z = random.nextInt(extent) - extent / 2;
+            int y = random.nextInt(40, 100);
+            int w = random.nextInt(8, 65);
+            int d = random.nextInt(8, 65);
+            int h = random.nextInt(8, 65);
+            ProtectedCuboidRegion region = new ProtectedCuboidRegion("region_" + i,
+                    BlockVector3.at(x, y, z), BlockVector3.at(x + w, y + h, z + d));
+            region.setPriority(random.nextInt(4));
+            regions.add(region);
+        }
+        return regions;
+    }
+
+    static RegionQueryService queryService(List<ProtectedRegion> regions) {
+        RegionQueryService service = new RegionQueryService(null);
+        service.update(WORLD, regions);
+        return service;
+    }
+
+    /**
+     * A tracker over the given regions, every one of them permanent.
+     */
+    static RegionTransitionTracker tracker(List<ProtectedRegion> regions, RegionTransitionTracker.EnterHandler handler) {
+        List<PermanentRegionManager.RegionSettings> settings = new ArrayList<>(regions.size());
+        for (ProtectedRegion region : regions) {
+            settings.add(new PermanentRegionManager.RegionSettings(region.getId(), WORLD,
+                    Color.fromRGB(255, 255, 0), 0.5, 32, "NONE", "", true));
+        }
+        return new RegionTransitionTracker(PermanentRegionManager.detached(settings), queryService(regions), handler);
+    }
+
+    static World world(String name) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> name;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "World[" + name + "]";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static Player player(UUID id) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> id;
+                    case "hashCode" -> id.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "Player[" + id + "]";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
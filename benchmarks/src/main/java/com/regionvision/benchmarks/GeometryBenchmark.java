@@ -0,0 +1,61 @@
+package com.regionvision.benchmarks;
+
+import com.regionvision.utils.GeometryUtil;
+import com.regionvision.utils.Wireframe;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a cuboid wireframe, packed and streamed, across region sizes and densities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+    /** Edge length of the cube in blocks. */
+    @Param({"16", "128", "1024"})
+    public int size;
+
+    @Param({"0.1", "0.25", "0.5"})
+    public double density;
+
+    private Vector min;
+    private Vector max;
+
+    @Setup
+    public void setUp() {
+        min = new Vector(0, 0, 0);
+        max = new Vector(size - 1, size - 1, size - 1);
+    }
+
+    @Benchmark
+    public Wireframe packed() {
+        return GeometryUtil.getCuboidWireframe(min, max, density, 0);
+    }
+
+    @Benchmark
+    public Wireframe streamed() {
+        return GeometryUtil.getCuboidWireframe(min, max, density, 1);
+    }
+
+    @Benchmark
+    public Wireframe defaultThreshold() {
+        return GeometryUtil.getCuboidWireframe(min, max, density);
+    }
+}
@@ -0,0 +1,72 @@
+package com.regionvision.benchmarks;
+
+import com.regionvision.utils.RegionTransitionTracker;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-move decision of the region entry listener: which permanent regions did the player just enter.
+ * <p>
+ * {@code walk} stays mostly inside one chunk, the common case of a player walking around;
+ * {@code crossChunks} moves to a new chunk on every call and so resolves candidates each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionEnterBenchmark {
+
+    // Dense enough that most chunks hold a few candidate regions
+    private static final int EXTENT = 2_000;
+
+    @Param({"1000", "10000"})
+    public int regions;
+
+    private RegionTransitionTracker tracker;
+    private Player player;
+    private World world;
+    private Blackhole blackhole;
+    private int step;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        List<ProtectedRegion> all = Fixtures.randomRegions(regions, EXTENT, 42);
+        this.blackhole = blackhole;
+        this.tracker = Fixtures.tracker(all, (p, region) -> this.blackhole.consume(region));
+        this.player = Fixtures.player(UUID.randomUUID());
+        this.world = Fixtures.world(Fixtures.WORLD);
+    }
+
+    @Benchmark
+    public void walk() {
+        // Back and forth over 24 blocks
+        int s = step++ & 63;
+        int x = s < 32 ? s : 64 - s;
+        tracker.move(player, world, x - 12, 64, 5);
+    }
+
+    @Benchmark
+    public void crossChunks() {
+        int s = step++ & 1023;
+        tracker.move(player, world, (s << 4) - EXTENT / 2, 64, (s * 7 & 127) << 4);
+    }
+}
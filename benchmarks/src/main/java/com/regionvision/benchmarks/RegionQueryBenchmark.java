@@ -0,0 +1,103 @@
+package com.regionvision.benchmarks;
+
+import com.regionvision.utils.RegionQueryService;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Region lookups around a position at 1k, 10k and 100k regions, against the linear scan
+ * over every region of the world that {@code /rv near} used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionQueryBenchmark {
+
+    private static final int EXTENT = 20_000;
+    private static final double RADIUS = 30;
+    private static final int POSITIONS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int regions;
+
+    private List<ProtectedRegion> all;
+    private RegionQueryService service;
+    private int[] positions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        all = Fixtures.randomRegions(regions, EXTENT, 42);
+        service = Fixtures.queryService(all);
+
+        SplittableRandom random = new SplittableRandom(7);
+        positions = new int[POSITIONS * 3];
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i * 3] = random.nextInt(EXTENT) - EXTENT / 2;
+            positions[i * 3 + 1] = random.nextInt(40, 160);
+            positions[i * 3 + 2] = random.nextInt(EXTENT) - EXTENT / 2;
+        }
+    }
+
+    private int nextPosition() {
+        int p = next;
+        next = (next + 3) % positions.length;
+        return p;
+    }
+
+    @Benchmark
+    public List<ProtectedRegion> queryRadius() {
+        int p = nextPosition();
+        List<ProtectedRegion> out = new ArrayList<>();
+        service.queryRadius(Fixtures.WORLD, positions[p], positions[p + 1], positions[p + 2], RADIUS, out);
+        return out;
+    }
+
+    @Benchmark
+    public List<ProtectedRegion> linearScan() {
+        int p = nextPosition();
+        int x = positions[p], y = positions[p + 1], z = positions[p + 2];
+        double radiusSq = RADIUS * RADIUS;
+        List<ProtectedRegion> out = new ArrayList<>();
+        for (ProtectedRegion region : all) {
+            BlockVector3 min = region.getMinimumPoint();
+            BlockVector3 max = region.getMaximumPoint();
+            double dx = Math.max(0, Math.max(min.getX() - x, x - max.getX()));
+            double dy = Math.max(0, Math.max(min.getY() - y, y - max.getY()));
+            double dz = Math.max(0, Math.max(min.getZ() - z, z - max.getZ()));
+            if (dx * dx + dy * dy + dz * dz <= radiusSq) out.add(region);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public ProtectedRegion regionAt() {
+        int p = nextPosition();
+        return service.getRegionAt(Fixtures.WORLD, positions[p], positions[p + 1], positions[p + 2]);
+    }
+
+    @Benchmark
+    public List<ProtectedRegion> nearest() {
+        int p = nextPosition();
+        return service.nearest(Fixtures.WORLD, positions[p], positions[p + 1], positions[p + 2], 5);
+    }
+}
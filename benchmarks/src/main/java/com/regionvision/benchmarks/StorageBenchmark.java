@@ -0,0 +1,99 @@
+package com.regionvision.benchmarks;
+
+import com.regionvision.storage.BinaryRegionStorage;
+import com.regionvision.storage.StoredRegion;
+import com.regionvision.storage.YamlRegionStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the permanent region manager's writer thread does per save, at large region counts:
+ * appending one changed region to the binary journal, compacting the binary snapshot,
+ * and rewriting the YAML file as older releases did on every change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({"10000", "100000"})
+    public int entries;
+
+    private File directory;
+    private List<StoredRegion> regions;
+    private BinaryRegionStorage binary;
+    private YamlRegionStorage yaml;
+    private int changed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rv-storage").toFile();
+        regions = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            regions.add(new StoredRegion("region_" + i, Fixtures.WORLD, i & 255, (i >> 8) & 255, 128,
+                    0.5, 32, "ACTION_BAR", "Entering region " + i, true));
+        }
+
+        // Never compacts on its own, so the append benchmark measures only appends
+        binary = new BinaryRegionStorage(new File(directory, "regions.dat"), new File(directory, "regions.journal"), Integer.MAX_VALUE);
+        binary.load();
+        binary.write(regions, List.of());
+        binary.compact();
+
+        yaml = new YamlRegionStorage(new File(directory, "regions.yml"));
+        yaml.write(regions, List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        binary.close();
+        yaml.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        directory.delete();
+    }
+
+    private StoredRegion nextChange() {
+        StoredRegion r = regions.get(changed++ % entries);
+        return new StoredRegion(r.regionId(), r.worldName(), r.red(), r.green(), (r.blue() + 1) & 255,
+                r.density(), r.viewDistance(), r.notificationType(), r.notificationMessage(), r.showParticles());
+    }
+
+    @Benchmark
+    public void binaryAppend() throws IOException {
+        binary.write(List.of(nextChange()), List.of());
+    }
+
+    @Benchmark
+    public void binaryCompact() throws IOException {
+        binary.compact();
+    }
+
+    @Benchmark
+    public void yamlRewrite() throws IOException {
+        yaml.write(List.of(nextChange()), List.of());
+    }
+}
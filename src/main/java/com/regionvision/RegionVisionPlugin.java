@@ -1,12 +1,19 @@
 package com.regionvision;
 
+import com.regionvision.listeners.RegionCommandListener;
 import com.regionvision.listeners.RegionEnterListener;
 import com.regionvision.listeners.WorldEditListener;
+import com.regionvision.listeners.WorldLoadListener;
 import com.regionvision.managers.CommandManager;
 import com.regionvision.managers.PermanentRegionManager;
 import com.regionvision.managers.VisualizerManager;
+import com.regionvision.utils.GeometryCache;
+import com.regionvision.utils.PerformanceMetrics;
+import com.regionvision.utils.RegionQueryService;
 import com.regionvision.utils.WorldGuardUtil;
 import org.bstats.bukkit.Metrics; 
+import org.bstats.charts.SimplePie;
+import org.bstats.charts.SingleLineChart;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class RegionVisionPlugin extends JavaPlugin {
@@ -15,6 +22,10 @@ public class RegionVisionPlugin extends JavaPlugin {
     private VisualizerManager visualizerManager;
     private PermanentRegionManager permanentRegionManager;
     private WorldGuardUtil worldGuardUtil;
+    private RegionQueryService regionQueryService;
+    private PerformanceMetrics performanceMetrics;
+    private WorldEditListener worldEditListener;
+    private RegionEnterListener regionEnterListener;
     private boolean hasWorldGuard = false;
     private boolean hasWorldEdit = false;
 
@@ -26,10 +37,14 @@ public class RegionVisionPlugin extends JavaPlugin {
         // --- bStats Metrics ---
         int pluginId = 28269; 
         Metrics metrics = new Metrics(this, pluginId);
+        this.performanceMetrics = new PerformanceMetrics(getConfig().getInt("metrics.window", 60) * 20);
+        addCharts(metrics);
         
         if (getServer().getPluginManager().getPlugin("WorldGuard") != null) {
             this.hasWorldGuard = true;
             this.worldGuardUtil = new WorldGuardUtil(this);
+            this.regionQueryService = new RegionQueryService(this);
+            regionQueryService.start();
             getLogger().info("Hooked into WorldGuard!");
         } else {
             getLogger().warning("WorldGuard not found! Region features disabled.");
@@ -42,8 +57,9 @@ public class RegionVisionPlugin extends JavaPlugin {
             getLogger().warning("WorldEdit not found! Selection features disabled.");
         }
 
-        this.permanentRegionManager = new PermanentRegionManager(this);
+        // The visualizer comes first: permanent region geometry starts building as soon as it loads
         this.visualizerManager = new VisualizerManager(this);
+        this.permanentRegionManager = new PermanentRegionManager(this);
         
         // Register Command & Tab Completer
         CommandManager cmdManager = new CommandManager(this);
@@ -52,21 +68,75 @@ public class RegionVisionPlugin extends JavaPlugin {
 
         // Register Listeners
         if (hasWorldEdit) {
-            getServer().getPluginManager().registerEvents(new WorldEditListener(this), this);
+            this.worldEditListener = new WorldEditListener(this);
+            getServer().getPluginManager().registerEvents(worldEditListener, this);
+            worldEditListener.register();
         }
         
         // Register Region Enter Listener
-        getServer().getPluginManager().registerEvents(new RegionEnterListener(this), this);
+        this.regionEnterListener = new RegionEnterListener(this);
+        getServer().getPluginManager().registerEvents(regionEnterListener, this);
+        getServer().getPluginManager().registerEvents(new WorldLoadListener(this), this);
+        if (hasWorldGuard) {
+            getServer().getPluginManager().registerEvents(new RegionCommandListener(this), this);
+        }
     }
 
     @Override
     public void onDisable() {
+        if (worldEditListener != null) {
+            worldEditListener.unregister();
+        }
         if (visualizerManager != null) {
             visualizerManager.stopAll();
         }
+        if (permanentRegionManager != null) {
+            permanentRegionManager.shutdown();
+        }
+        if (regionQueryService != null) {
+            regionQueryService.shutdown();
+        }
         instance = null;
     }
 
+    /**
+     * Re-reads config.yml and everything derived from it, plus the permanent regions, for /rv reload.
+     */
+    public void reload() {
+        reloadConfig();
+        if (visualizerManager != null) {
+            visualizerManager.reload();
+        }
+        if (permanentRegionManager != null) {
+            permanentRegionManager.reload();
+        }
+        if (regionEnterListener != null) {
+            regionEnterListener.reload();
+        }
+    }
+
+    // Charts read the last published window, so they never touch live state off the main thread
+    private void addCharts(Metrics metrics) {
+        metrics.addCustomChart(new SingleLineChart("particles_per_second", () -> {
+            PerformanceMetrics.Window window = performanceMetrics.getLastWindow();
+            return window == null ? 0 : (int) Math.round(window.particlesPerTick() * 20);
+        }));
+        metrics.addCustomChart(new SimplePie("render_loop_time", () -> {
+            PerformanceMetrics.Window window = performanceMetrics.getLastWindow();
+            if (window == null) return null;
+            double millis = window.timers().get(PerformanceMetrics.Timer.RENDER_LOOP).averageMillis();
+            if (millis < 0.1) return "< 0.1 ms";
+            if (millis < 0.5) return "0.1 - 0.5 ms";
+            if (millis < 1) return "0.5 - 1 ms";
+            if (millis < 5) return "1 - 5 ms";
+            return "> 5 ms";
+        }));
+        metrics.addCustomChart(new SingleLineChart("permanent_regions",
+                () -> permanentRegionManager == null ? 0 : permanentRegionManager.getAllRegions().size()));
+        metrics.addCustomChart(new SimplePie("render_mode",
+                () -> visualizerManager == null ? null : visualizerManager.isAsyncRender() ? "async" : "sync"));
+    }
+
     public static RegionVisionPlugin getInstance() {
         return instance;
     }
@@ -79,10 +149,38 @@ public class RegionVisionPlugin extends JavaPlugin {
         return permanentRegionManager;
     }
 
+    /**
+     * Shared geometry cache of on-demand visualizations; exposes hit and eviction counts.
+     */
+    public GeometryCache getGeometryCache() {
+        return visualizerManager != null ? visualizerManager.getGeometryCache() : null;
+    }
+
+    /**
+     * Particle, timing and per-region cost counters behind /rv stats and the bStats charts.
+     */
+    public PerformanceMetrics getPerformanceMetrics() {
+        return performanceMetrics;
+    }
+
+    /**
+     * Listener driving selection visuals, also holding each player's selection toggle; null without WorldEdit.
+     */
+    public WorldEditListener getWorldEditListener() {
+        return worldEditListener;
+    }
+
     public WorldGuardUtil getWorldGuardUtil() {
         return worldGuardUtil;
     }
 
+    /**
+     * Indexed snapshot of WorldGuard's regions; null without WorldGuard.
+     */
+    public RegionQueryService getRegionQueryService() {
+        return regionQueryService;
+    }
+
     public boolean hasWorldGuard() {
         return hasWorldGuard;
     }
@@ -0,0 +1,44 @@
+package com.regionvision.listeners;
+
+import com.regionvision.RegionVisionPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * WorldGuard fires no events when regions change, so its region commands are the signal:
+ * after one ran, the region index is refreshed right away instead of at the next periodic refresh.
+ */
+public class RegionCommandListener implements Listener {
+
+    private static final Set<String> REGION_COMMANDS = Set.of("rg", "region", "regions");
+
+    private final RegionVisionPlugin plugin;
+
+    public RegionCommandListener(RegionVisionPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        if (isRegionCommand(event.getMessage())) plugin.getRegionQueryService().refreshSoon();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onServerCommand(ServerCommandEvent event) {
+        if (isRegionCommand(event.getCommand())) plugin.getRegionQueryService().refreshSoon();
+    }
+
+    private static boolean isRegionCommand(String line) {
+        int start = line.startsWith("/") ? 1 : 0;
+        int end = line.indexOf(' ', start);
+        String label = line.substring(start, end < 0 ? line.length() : end).toLowerCase(Locale.ROOT);
+        if (label.startsWith("worldguard:")) label = label.substring("worldguard:".length());
+        return REGION_COMMANDS.contains(label);
+    }
+}
@@ -1,109 +1,210 @@
 package com.regionvision.listeners;
 
 import com.regionvision.RegionVisionPlugin;
-import com.regionvision.managers.PermanentRegionManager;
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.ApplicableRegionSet;
-import com.sk89q.worldguard.protection.managers.RegionManager;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.regionvision.managers.PermanentRegionManager.RegionSettings;
+import com.regionvision.utils.PerformanceMetrics;
+import com.regionvision.utils.RegionNotification;
+import com.regionvision.utils.RegionTransitionTracker;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.title.Title;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
-
-import java.time.Duration;
-import java.util.HashSet;
-import java.util.Set;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 public class RegionEnterListener implements Listener {
 
     private final RegionVisionPlugin plugin;
-    // Track which permanent regions the player is currently inside to avoid spamming the message
-    private final ConcurrentMap<UUID, Set<String>> playerRegions = new ConcurrentHashMap<>();
+    // Tracks which permanent regions each player is inside to avoid spamming the message
+    private final RegionTransitionTracker tracker;
+    // One boss bar per player, renamed and re-shown on every entry
+    private final Map<UUID, PlayerBar> bossBars = new HashMap<>();
+
+    private static final long BOSS_BAR_MILLIS = 5000L;
+
+    // Batched mode: positions are snapshotted on the main thread and resolved on a worker
+    private volatile boolean batched;
+    private volatile boolean batchRunning;
+    private BukkitTask batchTask;
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private Player[] snapshotPlayers = new Player[0];
+    private World[] snapshotWorlds = new World[0];
+    private int[] snapshotCoords = new int[0];
+    private int snapshotSize;
+    // Entries found by the worker, handed to the main thread when the batch ends
+    private final List<PendingEntry> batchEntries = new ArrayList<>();
+
+    private record PendingEntry(Player player, RegionSettings region) {}
+
+    private static final class PlayerBar {
+        final BossBar bar = BossBar.bossBar(Component.empty(), 1.0f, BossBar.Color.PURPLE, BossBar.Overlay.PROGRESS);
+        boolean shown;
+        long hideAt;
+    }
 
     public RegionEnterListener(RegionVisionPlugin plugin) {
         this.plugin = plugin;
+        this.tracker = new RegionTransitionTracker(plugin.getPermanentRegionManager(), plugin.getRegionQueryService(), this::onEnter);
+        // A single sweep hides expired boss bars instead of one delayed task per entry
+        Bukkit.getScheduler().runTaskTimer(plugin, this::hideExpiredBossBars, 20L, 20L);
+        reload();
+    }
+
+    /**
+     * Re-reads the notification settings; the batch task only runs in batched mode, with the
+     * batch interval as its period. Main thread only.
+     */
+    public void reload() {
+        tracker.setLimits(plugin.getConfig().getInt("notifications.hysteresis", 0),
+                plugin.getConfig().getLong("notifications.cooldown", 0) * 1000L);
+        if (batchTask != null) {
+            batchTask.cancel();
+            batchTask = null;
+        }
+        batched = "BATCHED".equalsIgnoreCase(plugin.getConfig().getString("notifications.mode", "EVENT"));
+        if (!batched) return;
+        long interval = Math.max(1, plugin.getConfig().getInt("notifications.batch-interval", 2));
+        batchTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tickBatch, interval, interval);
     }
 
     @EventHandler
     public void onMove(PlayerMoveEvent event) {
+        if (batched) return;
+
         // Optimization: Only run if the player moved to a different block
-        if (event.getFrom().getBlockX() == event.getTo().getBlockX() &&
-            event.getFrom().getBlockY() == event.getTo().getBlockY() &&
-            event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() &&
+            from.getBlockY() == to.getBlockY() &&
+            from.getBlockZ() == to.getBlockZ()) {
             return;
         }
 
-        Player player = event.getPlayer();
-        PermanentRegionManager pm = plugin.getPermanentRegionManager();
-        if (pm == null) return;
+        if (!plugin.hasWorldGuard() || plugin.getPermanentRegionManager() == null) return;
 
-        // Get WorldGuard regions at new location
-        RegionManager regionManager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
-        if (regionManager == null) return;
+        long started = System.nanoTime();
+        tracker.move(event.getPlayer(), to.getWorld(), to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        plugin.getPerformanceMetrics().recordTime(PerformanceMetrics.Timer.MOVE_CHECK, System.nanoTime() - started);
+    }
 
-        ApplicableRegionSet set = regionManager.getApplicableRegions(BukkitAdapter.asBlockVector(event.getTo()));
-        
-        Set<String> currentRegions = set.getRegions().stream()
-                .map(ProtectedRegion::getId)
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        tracker.remove(event.getPlayer());
+        bossBars.remove(event.getPlayer().getUniqueId());
+    }
 
-        Set<String> previousRegions = playerRegions.getOrDefault(player.getUniqueId(), new HashSet<>());
+    private void onEnter(Player player, RegionSettings region) {
+        if (Bukkit.isPrimaryThread()) {
+            triggerNotification(player, region);
+        } else {
+            batchEntries.add(new PendingEntry(player, region));
+        }
+    }
 
-        // Check for newly entered regions
-        for (String regionId : currentRegions) {
-            // If we weren't in it before, and it is a tracked permanent region
-            if (!previousRegions.contains(regionId) && pm.isPermanent(regionId)) {
-                triggerNotification(player, regionId);
-            }
+    /**
+     * Batched mode: every {@code notifications.batch-interval} ticks, snapshots the block position
+     * of every player and resolves all of them in one pass on a worker. Cost no longer depends on
+     * how many move events arrive.
+     */
+    private void tickBatch() {
+        if (batchRunning) return;
+        if (!plugin.hasWorldGuard() || plugin.getPermanentRegionManager() == null) return;
+
+        int count = Bukkit.getOnlinePlayers().size();
+        if (count == 0) return;
+        if (snapshotPlayers.length < count) {
+            snapshotPlayers = new Player[count];
+            snapshotWorlds = new World[count];
+            snapshotCoords = new int[count * 3];
         }
 
-        // Update cache
-        if (currentRegions.isEmpty()) {
-            playerRegions.remove(player.getUniqueId());
-        } else {
-            playerRegions.put(player.getUniqueId(), currentRegions);
+        int n = 0;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (n == count) break;
+            Location loc = player.getLocation(scratch);
+            snapshotPlayers[n] = player;
+            snapshotWorlds[n] = loc.getWorld();
+            snapshotCoords[n * 3] = loc.getBlockX();
+            snapshotCoords[n * 3 + 1] = loc.getBlockY();
+            snapshotCoords[n * 3 + 2] = loc.getBlockZ();
+            n++;
         }
+        snapshotSize = n;
+
+        batchRunning = true;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::resolveBatch);
     }
 
-    private void triggerNotification(Player player, String regionId) {
-        PermanentRegionManager pm = plugin.getPermanentRegionManager();
-        // We iterate to find the settings because our map key might differ in case slightly, 
-        // though we enforced lowercase in manager. 
-        // Best to just fetch from manager directly.
-        PermanentRegionManager.RegionSettings settings = pm.getAllRegions().stream()
-                .filter(s -> s.regionId.equalsIgnoreCase(regionId))
-                .findFirst()
-                .orElse(null);
-
-        if (settings == null || "NONE".equalsIgnoreCase(settings.notificationType)) return;
-
-        Component message = MiniMessage.miniMessage().deserialize(settings.notificationMessage);
-
-        switch (settings.notificationType.toUpperCase()) {
-            case "ACTION_BAR" -> player.sendActionBar(message);
-            case "TITLE" -> {
-                Title.Times times = Title.Times.times(Duration.ofMillis(500), Duration.ofMillis(3000), Duration.ofMillis(1000));
-                Title title = Title.title(message, Component.empty(), times);
-                player.showTitle(title);
+    private void resolveBatch() {
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < snapshotSize; i++) {
+                tracker.move(snapshotPlayers[i], snapshotWorlds[i],
+                        snapshotCoords[i * 3], snapshotCoords[i * 3 + 1], snapshotCoords[i * 3 + 2]);
             }
-            case "BOSS_BAR" -> {
-                BossBar bossBar = BossBar.bossBar(message, 1.0f, BossBar.Color.PURPLE, BossBar.Overlay.PROGRESS);
-                player.showBossBar(bossBar);
-                // Hide boss bar after 5 seconds
-                Bukkit.getScheduler().runTaskLater(plugin, () -> player.hideBossBar(bossBar), 100L);
+        } finally {
+            // Don't keep players or worlds alive between batches
+            Arrays.fill(snapshotPlayers, 0, snapshotSize, null);
+            Arrays.fill(snapshotWorlds, 0, snapshotSize, null);
+
+            List<PendingEntry> entries = batchEntries.isEmpty() ? List.of() : new ArrayList<>(batchEntries);
+            batchEntries.clear();
+            batchRunning = false;
+            plugin.getPerformanceMetrics().recordTime(PerformanceMetrics.Timer.MOVE_BATCH, System.nanoTime() - started);
+            if (!entries.isEmpty()) {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    for (PendingEntry entry : entries) {
+                        if (entry.player().isOnline()) triggerNotification(entry.player(), entry.region());
+                    }
+                });
             }
         }
     }
-}
\ No newline at end of file
+
+    private void triggerNotification(Player player, RegionSettings region) {
+        RegionNotification notification = plugin.getPermanentRegionManager().getNotification(region.worldName, region.regionId);
+
+        switch (notification.getType()) {
+            case ACTION_BAR -> player.sendActionBar(notification.getMessage());
+            case TITLE -> player.showTitle(notification.getTitle());
+            case BOSS_BAR -> {
+                PlayerBar playerBar = bossBars.get(player.getUniqueId());
+                if (playerBar == null) {
+                    playerBar = new PlayerBar();
+                    bossBars.put(player.getUniqueId(), playerBar);
+                }
+                playerBar.bar.name(notification.getMessage());
+                // Showing an already visible bar is a no-op, so this only extends it
+                player.showBossBar(playerBar.bar);
+                playerBar.shown = true;
+                playerBar.hideAt = System.currentTimeMillis() + BOSS_BAR_MILLIS;
+            }
+            case NONE -> {
+            }
+        }
+    }
+
+    private void hideExpiredBossBars() {
+        if (bossBars.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, PlayerBar> entry : bossBars.entrySet()) {
+            PlayerBar playerBar = entry.getValue();
+            if (!playerBar.shown || playerBar.hideAt > now) continue;
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null) player.hideBossBar(playerBar.bar);
+            playerBar.shown = false;
+        }
+    }
+}
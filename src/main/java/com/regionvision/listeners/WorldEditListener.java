@@ -1,44 +1,149 @@
 package com.regionvision.listeners;
 
 import com.regionvision.RegionVisionPlugin;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.event.platform.BlockInteractEvent;
+import com.sk89q.worldedit.event.platform.CommandEvent;
+import com.sk89q.worldedit.extension.platform.Actor;
+import com.sk89q.worldedit.util.eventbus.EventHandler.Priority;
+import com.sk89q.worldedit.util.eventbus.Subscribe;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.block.Action;
-import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
 
+import java.util.UUID;
+
+/**
+ * Keeps selection wireframes in step with WorldEdit. Selections change through wand clicks and
+ * commands, both of which WorldEdit posts on its own event bus; listening there after WorldEdit
+ * has handled them means the selection is final, with no delay and no polling. Whether a player
+ * holds the wand is cached from item events, so rendering never has to look at inventories.
+ */
 public class WorldEditListener implements Listener {
 
     private final RegionVisionPlugin plugin;
     private final NamespacedKey toggleKey;
+    private Material wand = Material.WOODEN_AXE;
 
     public WorldEditListener(RegionVisionPlugin plugin) {
         this.plugin = plugin;
         this.toggleKey = new NamespacedKey(plugin, "selection_visual_enabled");
     }
 
-    @EventHandler
-    public void onWandInteract(PlayerInteractEvent event) {
-        if (event.getAction() != Action.LEFT_CLICK_BLOCK && event.getAction() != Action.RIGHT_CLICK_BLOCK) {
-            return;
+    /**
+     * Subscribes to WorldEdit's event bus and picks up players already online, e.g. after a reload.
+     */
+    public void register() {
+        String wandItem = WorldEdit.getInstance().getConfiguration().wandItem;
+        Material configured = wandItem != null ? Material.matchMaterial(wandItem) : null;
+        if (configured != null) wand = configured;
+
+        WorldEdit.getInstance().getEventBus().register(this);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refreshWand(player);
+            updateSelection(player);
         }
+    }
+
+    public void unregister() {
+        WorldEdit.getInstance().getEventBus().unregister(this);
+    }
+
+    // WorldEdit selects with the wand and runs commands at normal priority, so this sees the result
+    @Subscribe(priority = Priority.VERY_LATE)
+    public void onBlockInteract(BlockInteractEvent event) {
+        selectionMayHaveChanged(event.getCause());
+    }
+
+    @Subscribe(priority = Priority.VERY_LATE)
+    public void onCommand(CommandEvent event) {
+        selectionMayHaveChanged(event.getActor());
+    }
 
+    private void selectionMayHaveChanged(Actor actor) {
+        if (!(actor instanceof com.sk89q.worldedit.entity.Player)) return;
+        UUID id = actor.getUniqueId();
+        if (Bukkit.isPrimaryThread()) {
+            updateSelection(Bukkit.getPlayer(id));
+        } else {
+            Bukkit.getScheduler().runTask(plugin, () -> updateSelection(Bukkit.getPlayer(id)));
+        }
+    }
+
+    private void updateSelection(Player player) {
+        if (player == null || !isToggledOn(player)) return;
+        plugin.getVisualizerManager().updateSelectionVisualization(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemHeld(PlayerItemHeldEvent event) {
         Player player = event.getPlayer();
-        
-        // Check if player has visualization toggled on
-        if (!isToggledOn(player)) return;
-
-        // Check if item is a wand (usually Wooden Axe, but best to check loosely or check WE config)
-        // For simplicity in this demo, we check if they have permission to make selections
-        if (!player.hasPermission("worldedit.selection.pos")) return;
-
-        // Trigger update
-        // We delay slightly to allow WE to process the event first
-        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            plugin.getVisualizerManager().updateSelectionVisualization(player);
-        }, 2L);
+        plugin.getVisualizerManager().setHoldingWand(player, isWand(player.getInventory().getItem(event.getNewSlot())));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSwapHands(PlayerSwapHandItemsEvent event) {
+        plugin.getVisualizerManager().setHoldingWand(event.getPlayer(), isWand(event.getMainHandItem()));
+    }
+
+    // These can change what is in the hand without changing the held slot; look again once they applied
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player) refreshWandLater(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDrop(PlayerDropItemEvent event) {
+        refreshWandLater(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player player) refreshWandLater(player);
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        refreshWand(event.getPlayer());
+        updateSelection(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        updateSelection(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.getVisualizerManager().setHoldingWand(event.getPlayer(), false);
+    }
+
+    private void refreshWand(Player player) {
+        plugin.getVisualizerManager().setHoldingWand(player, isWand(player.getInventory().getItemInMainHand()));
+    }
+
+    private void refreshWandLater(Player player) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (player.isOnline()) refreshWand(player);
+        });
+    }
+
+    private boolean isWand(ItemStack item) {
+        return item != null && item.getType() == wand;
     }
 
     public boolean isToggledOn(Player player) {
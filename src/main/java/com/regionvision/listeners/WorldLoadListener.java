@@ -0,0 +1,25 @@
+package com.regionvision.listeners;
+
+import com.regionvision.RegionVisionPlugin;
+import com.regionvision.managers.PermanentRegionManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+
+public class WorldLoadListener implements Listener {
+
+    private final RegionVisionPlugin plugin;
+
+    public WorldLoadListener(RegionVisionPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        if (plugin.getRegionQueryService() != null) plugin.getRegionQueryService().refresh(event.getWorld());
+
+        // Permanent regions of worlds loaded after us were deferred until now
+        PermanentRegionManager pm = plugin.getPermanentRegionManager();
+        if (pm != null) pm.onWorldLoad(event.getWorld());
+    }
+}
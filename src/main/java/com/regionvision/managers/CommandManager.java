@@ -2,11 +2,14 @@ package com.regionvision.managers;
 
 import com.regionvision.RegionVisionPlugin;
 import com.regionvision.listeners.WorldEditListener;
+import com.regionvision.utils.GeometryCache;
+import com.regionvision.utils.PerformanceMetrics;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
 import org.bukkit.Color;
+import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -20,10 +23,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class CommandManager implements CommandExecutor, TabCompleter {
 
+    // Region name suggestions per keystroke; plot worlds can have tens of thousands of matches
+    private static final int MAX_REGION_COMPLETIONS = 100;
+    private static final int STATS_TOP_PLAYERS = 5;
+    private static final int STATS_TOP_REGIONS = 10;
+
     private final RegionVisionPlugin plugin;
     private final List<String> colorNames = Arrays.asList(
             "WHITE", "SILVER", "GRAY", "BLACK", "RED", "MAROON", 
@@ -58,6 +68,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
             case "near" -> handleNear(player, args);
             case "perm" -> handlePerm(player, args);
             case "reload" -> handleReload(player);
+            case "stats" -> handleStats(player, args);
             default -> sendHelp(player);
         }
 
@@ -71,15 +82,15 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            String[] subCommands = {"show", "clear", "toggle", "info", "view", "near", "perm", "reload"};
+            String[] subCommands = {"show", "clear", "toggle", "info", "view", "near", "perm", "reload", "stats"};
             StringUtil.copyPartialMatches(args[0], Arrays.asList(subCommands), completions);
         } 
         else if (args.length == 2) {
             switch (args[0].toLowerCase()) {
                 case "toggle" -> StringUtil.copyPartialMatches(args[1], List.of("selection"), completions);
+                case "stats" -> StringUtil.copyPartialMatches(args[1], List.of("regions"), completions);
                 case "info", "view" -> {
-                    Set<String> regions = plugin.getWorldGuardUtil().getRegionNames(player.getWorld());
-                    StringUtil.copyPartialMatches(args[1], regions, completions);
+                    return completeRegionNames(player, args[1]);
                 }
                 case "perm" -> {
                     String[] permActions = {"add", "remove", "color", "density", "distance", "message", "particles"};
@@ -89,8 +100,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         }
         else if (args.length == 3) {
             if (args[0].equalsIgnoreCase("perm")) {
-                Set<String> regions = plugin.getWorldGuardUtil().getRegionNames(player.getWorld());
-                StringUtil.copyPartialMatches(args[2], regions, completions);
+                return completeRegionNames(player, args[2]);
             }
         }
         else if (args.length == 4) {
@@ -109,6 +119,14 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         return completions;
     }
 
+    // Already sorted and capped by the name index, so no full copy or sort per keystroke
+    private List<String> completeRegionNames(Player player, String prefix) {
+        if (!plugin.hasWorldGuard()) return Collections.emptyList();
+        List<String> completions = new ArrayList<>();
+        plugin.getRegionQueryService().completeNames(player.getWorld().getName(), prefix, MAX_REGION_COMPLETIONS, completions);
+        return completions;
+    }
+
     private void handlePerm(Player player, String[] args) {
         if (!player.hasPermission("regionvision.admin")) {
             player.sendMessage(parse(plugin.getConfig().getString("messages.no-permission")));
@@ -122,6 +140,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
 
         String action = args[1].toLowerCase();
         String regionName = args[2];
+        String worldName = player.getWorld().getName();
         PermanentRegionManager pm = plugin.getPermanentRegionManager();
 
         switch (action) {
@@ -135,18 +154,18 @@ public class CommandManager implements CommandExecutor, TabCompleter {
                 player.sendMessage(parse("<green>Region <white>" + regionName + "<green> is now permanently visible!"));
             }
             case "remove" -> {
-                if (!pm.isPermanent(regionName)) {
+                if (!pm.isPermanent(worldName, regionName)) {
                     player.sendMessage(parse("<red>That region is not marked as permanent."));
                     return;
                 }
-                pm.removeRegion(regionName);
+                pm.removeRegion(worldName, regionName);
                 player.sendMessage(parse("<green>Region removed from permanent view."));
             }
             case "color" -> {
                 if (args.length == 4) {
                     Color c = getColorByName(args[3]);
                     if (c != null) {
-                        pm.updateColor(regionName, c.getRed(), c.getGreen(), c.getBlue());
+                        pm.updateColor(worldName, regionName, c.getRed(), c.getGreen(), c.getBlue());
                         player.sendMessage(parse("<green>Color updated to " + args[3].toUpperCase() + "!"));
                         return;
                     } else {
@@ -162,7 +181,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
                     int r = Integer.parseInt(args[3]);
                     int g = Integer.parseInt(args[4]);
                     int b = Integer.parseInt(args[5]);
-                    pm.updateColor(regionName, r, g, b);
+                    pm.updateColor(worldName, regionName, r, g, b);
                     player.sendMessage(parse("<green>Color updated!"));
                 } catch (NumberFormatException e) {
                     player.sendMessage(parse("<red>RGB values must be integers (0-255)."));
@@ -175,7 +194,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
                 }
                 try {
                     double d = Double.parseDouble(args[3]);
-                    pm.updateDensity(regionName, d);
+                    pm.updateDensity(worldName, regionName, d);
                     player.sendMessage(parse("<green>Density updated!"));
                 } catch (NumberFormatException e) {
                     player.sendMessage(parse("<red>Density must be a number (0.1 - 1.0)."));
@@ -188,7 +207,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
                 }
                 try {
                     int dist = Integer.parseInt(args[3]);
-                    pm.updateViewDistance(regionName, dist);
+                    pm.updateViewDistance(worldName, regionName, dist);
                     player.sendMessage(parse("<green>View distance updated!"));
                 } catch (NumberFormatException e) {
                     player.sendMessage(parse("<red>Distance must be a number."));
@@ -207,7 +226,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
                     return;
                 }
                 
-                pm.updateNotification(regionName, type, message);
+                pm.updateNotification(worldName, regionName, type, message);
                 player.sendMessage(parse("<green>Region entry notification updated!"));
             }
             case "particles" -> {
@@ -216,7 +235,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
                     return;
                 }
                 boolean state = Boolean.parseBoolean(args[3]);
-                pm.updateParticles(regionName, state);
+                pm.updateParticles(worldName, regionName, state);
                 String status = state ? "<green>enabled" : "<red>disabled";
                 player.sendMessage(parse("<green>Particles for region <white>" + regionName + "<green> are now " + status + "."));
             }
@@ -235,7 +254,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
             return;
         }
 
-        ProtectedRegion region = plugin.getWorldGuardUtil().getRegionAt(player.getLocation());
+        ProtectedRegion region = getRegionAt(player);
         if (region == null) {
             player.sendMessage(parse(plugin.getConfig().getString("messages.no-region-found")));
             return;
@@ -259,7 +278,11 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         }
 
         if (args.length > 1 && args[1].equalsIgnoreCase("selection")) {
-            WorldEditListener listener = new WorldEditListener(plugin); 
+            WorldEditListener listener = plugin.getWorldEditListener();
+            if (listener == null) {
+                player.sendMessage(Component.text("WorldEdit is not installed.", net.kyori.adventure.text.format.NamedTextColor.RED));
+                return;
+            }
             boolean current = listener.isToggledOn(player);
             listener.setToggle(player, !current);
             
@@ -268,6 +291,8 @@ public class CommandManager implements CommandExecutor, TabCompleter {
             
             if (current) {
                 plugin.getVisualizerManager().clearAllParticlesForPlayer(player);
+            } else {
+                plugin.getVisualizerManager().updateSelectionVisualization(player);
             }
         } else {
             player.sendMessage(Component.text("Usage: /rv toggle selection", net.kyori.adventure.text.format.NamedTextColor.RED));
@@ -281,7 +306,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         if (args.length > 1) {
             region = plugin.getWorldGuardUtil().getRegionByName(player.getWorld(), args[1]);
         } else {
-            region = plugin.getWorldGuardUtil().getRegionAt(player.getLocation());
+            region = getRegionAt(player);
         }
 
         if (region == null) {
@@ -330,31 +355,113 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         int max = plugin.getConfig().getInt("visualizer.max-near-radius", 100);
         if (radius > max) radius = max;
 
-        int finalRadius = radius;
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            Set<ProtectedRegion> regions = plugin.getWorldGuardUtil().getRegionsNear(player.getLocation(), finalRadius);
-            
-            if (regions.isEmpty()) {
-                player.sendMessage(parse(plugin.getConfig().getString("messages.no-region-found")));
-                return;
-            }
+        if (!plugin.hasWorldGuard()) return;
 
-            player.sendMessage(parse("<green>Found " + regions.size() + " regions. Visualizing..."));
-            
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                for (ProtectedRegion r : regions) {
-                    plugin.getVisualizerManager().showRegion(player, r);
-                }
-            });
-        });
+        // An indexed lookup, cheap enough to answer right away on the main thread
+        Location loc = player.getLocation();
+        List<ProtectedRegion> regions = new ArrayList<>();
+        plugin.getRegionQueryService().queryRadius(player.getWorld().getName(), loc.getX(), loc.getY(), loc.getZ(), radius, regions);
+
+        if (regions.isEmpty()) {
+            player.sendMessage(parse(plugin.getConfig().getString("messages.no-region-found")));
+            return;
+        }
+
+        player.sendMessage(parse("<green>Found " + regions.size() + " regions. Visualizing..."));
+        plugin.getVisualizerManager().showRegions(player, regions);
+    }
+
+    private ProtectedRegion getRegionAt(Player player) {
+        if (!plugin.hasWorldGuard()) return null;
+        Location loc = player.getLocation();
+        ProtectedRegion region = plugin.getRegionQueryService().getRegionAt(player.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        // A region defined moments ago may not be indexed yet; WorldGuard has the final word
+        return region != null ? region : plugin.getWorldGuardUtil().getRegionAt(loc);
     }
 
     private void handleReload(Player player) {
         if (!player.hasPermission("regionvision.admin")) return;
-        plugin.reloadConfig();
+        plugin.reload();
         player.sendMessage(parse(plugin.getConfig().getString("messages.reloaded")));
     }
 
+    private void handleStats(Player player, String[] args) {
+        if (!player.hasPermission("regionvision.stats")) {
+            player.sendMessage(parse(plugin.getConfig().getString("messages.no-permission")));
+            return;
+        }
+
+        // The last full window is stable; before the first one ends, show what we have so far
+        PerformanceMetrics metrics = plugin.getPerformanceMetrics();
+        PerformanceMetrics.Window window = metrics.getLastWindow();
+        if (window == null) window = metrics.getCurrentWindow();
+
+        player.sendMessage(parse("<gold>--- RegionVision Stats <gray>(last " + format(window.seconds()) + "s)<gold> ---"));
+        if (args.length > 1 && args[1].equalsIgnoreCase("regions")) {
+            sendRegionCosts(player, window);
+            return;
+        }
+
+        player.sendMessage(parse("<yellow>Particles: <white>" + format(window.particlesPerTick()) + "<gray>/tick avg, <white>"
+                + window.peakTickParticles() + "<gray> peak, <white>" + plugin.getVisualizerManager().getDeferredCount() + "<gray> deferred"));
+
+        List<Map.Entry<UUID, Long>> players = window.playerParticles().entrySet().stream()
+                .sorted(Map.Entry.<UUID, Long>comparingByValue().reversed())
+                .limit(STATS_TOP_PLAYERS)
+                .toList();
+        for (Map.Entry<UUID, Long> entry : players) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            String name = viewer != null ? viewer.getName() : entry.getKey().toString();
+            double perTick = window.ticks() == 0 ? 0 : entry.getValue() / (double) window.ticks();
+            player.sendMessage(parse("<gray>  " + name + ": <white>" + format(perTick) + "<gray>/tick"));
+        }
+
+        for (PerformanceMetrics.Timer timer : PerformanceMetrics.Timer.values()) {
+            PerformanceMetrics.TimerStats stats = window.timers().get(timer);
+            if (stats.count() == 0) continue;
+            player.sendMessage(parse("<yellow>" + timer.getLabel() + ": <white>" + format(stats.averageMillis())
+                    + "<gray> ms avg, <white>" + format(stats.maxMillis()) + "<gray> ms max, <white>" + stats.count() + "<gray> runs"));
+        }
+
+        GeometryCache cache = plugin.getGeometryCache();
+        if (cache != null) {
+            long lookups = cache.getHits() + cache.getMisses();
+            double hitRate = lookups == 0 ? 0 : cache.getHits() * 100.0 / lookups;
+            player.sendMessage(parse("<yellow>Geometry cache: <white>" + cache.getSize() + "<gray> wireframes, <white>"
+                    + cache.getPoints() + "<gray> points, <white>" + format(hitRate) + "%<gray> hits, <white>"
+                    + cache.getEvictions() + "<gray> evicted"));
+        }
+        int displays = plugin.getVisualizerManager().getDisplayEntityCount();
+        if (displays > 0) player.sendMessage(parse("<yellow>Display bars: <white>" + displays));
+        if (plugin.getPermanentRegionManager() != null) {
+            player.sendMessage(parse("<yellow>Permanent regions: <white>" + plugin.getPermanentRegionManager().getAllRegions().size()
+                    + "<gray>, <white>" + plugin.getPermanentRegionManager().getCachedGeometryCount() + "<gray> built"));
+        }
+        if (plugin.hasWorldGuard()) {
+            player.sendMessage(parse("<yellow>Region index: <white>" + plugin.getRegionQueryService().getRegionCount() + "<gray> regions"));
+        }
+        player.sendMessage(parse("<gray>/rv stats regions <dark_gray>- most expensive regions"));
+    }
+
+    private void sendRegionCosts(Player player, PerformanceMetrics.Window window) {
+        List<PerformanceMetrics.RegionCost> top = PerformanceMetrics.topRegions(window, STATS_TOP_REGIONS);
+        if (top.isEmpty()) {
+            player.sendMessage(parse("<gray>Nothing was rendered or built yet."));
+            return;
+        }
+        int rank = 1;
+        for (PerformanceMetrics.RegionCost cost : top) {
+            double share = window.particles() == 0 ? 0 : cost.particles() * 100.0 / window.particles();
+            player.sendMessage(parse("<yellow>" + rank++ + ". <white>" + cost.key() + "<gray>: <white>" + cost.particles()
+                    + "<gray> particles (" + format(share) + "%), <white>" + cost.sends() + "<gray> sends, <white>"
+                    + cost.builds() + "<gray> builds in <white>" + format(cost.buildNanos() / 1_000_000.0) + "<gray> ms"));
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
     private void sendHelp(Player player) {
         player.sendMessage(parse("<gold>--- RegionVision Help ---"));
         player.sendMessage(parse("<yellow>/rv show <gray>- Show region you are standing in"));
@@ -366,6 +473,7 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         player.sendMessage(parse("<yellow>/rv perm particles <name> <true|false> <gray>- Toggle particles"));
         player.sendMessage(parse("<yellow>/rv info [name] <gray>- Region info"));
         player.sendMessage(parse("<yellow>/rv toggle selection <gray>- Toggle WE visualizer"));
+        player.sendMessage(parse("<yellow>/rv stats [regions] <gray>- Runtime cost and most expensive regions"));
     }
 
     private Component parse(String msg) {
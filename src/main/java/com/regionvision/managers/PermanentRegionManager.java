@@ -1,70 +1,309 @@
 package com.regionvision.managers;
 
 import com.regionvision.RegionVisionPlugin;
+import com.regionvision.render.ParticlePayload;
+import com.regionvision.storage.BinaryRegionStorage;
+import com.regionvision.storage.RegionStorage;
+import com.regionvision.storage.StorageMigration;
+import com.regionvision.storage.StoredRegion;
+import com.regionvision.storage.YamlRegionStorage;
+import com.regionvision.utils.EdgeMerger;
 import com.regionvision.utils.GeometryUtil;
+import com.regionvision.utils.RegionNotification;
+import com.regionvision.utils.RegionQueryService;
+import com.regionvision.utils.SpatialGrid;
+import com.regionvision.utils.Wireframe;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.Bukkit;
 import org.bukkit.Color;
-import org.bukkit.Location;
 import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.util.Vector;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 public class PermanentRegionManager {
 
     private final RegionVisionPlugin plugin;
-    private final File file;
-    private FileConfiguration config;
+    private final RegionStorage storage;
     
-    private final Map<String, List<Location>> geometryCache = new ConcurrentHashMap<>();
+    private final Map<String, ParticlePayload> geometryCache = new ConcurrentHashMap<>();
     private final Map<String, RegionSettings> regions = new ConcurrentHashMap<>();
+    private final Map<String, RegionNotification> notifications = new ConcurrentHashMap<>();
+    // Per-world grid over region bounds grown by their view distance
+    private final Map<String, SpatialGrid<RegionSettings>> worldIndex = new ConcurrentHashMap<>();
+    // Bumped whenever the set of permanent regions changes
+    private final AtomicInteger version = new AtomicInteger();
+
+    private static final int INDEX_CELL_SHIFT = 6; // 64-block cells
+
+    // Block bounds (inclusive) and WorldGuard priority of a permanent region
+    private record Footprint(String key, int priority, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {}
+
+    // Where visible regions share a border, the higher priority draws it; ties go by key
+    private static final Comparator<Footprint> BY_RANK = Comparator.comparingInt(Footprint::priority)
+            .thenComparing(Footprint::key);
+
+    // Resolved on the main thread, so geometry builds never call into WorldGuard
+    private final Map<String, Footprint> footprints = new ConcurrentHashMap<>();
+    // Per-world grid over the footprints of the visible regions, to find the ones sharing edges
+    private final Map<String, SpatialGrid<Footprint>> edgeIndex = new ConcurrentHashMap<>();
+    // Latest build per region; an older build finishing late is discarded
+    private final Map<String, Long> latestBuild = new ConcurrentHashMap<>();
+    private final AtomicLong buildCounter = new AtomicLong();
+
+    // Write-behind persistence: changes only mark regions dirty on the main thread; one
+    // coalesced save per delay snapshots them and the writer thread hands them to the storage
+    private final Set<String> dirty = new HashSet<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "RegionVision-Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean saveScheduled;
+
+    // Geometry builds run on their own bounded pool instead of flooding the Bukkit async pool
+    private final ForkJoinPool geometryPool;
+    // Regions whose world isn't loaded yet, built once WorldLoadEvent fires
+    private final Map<String, List<RegionSettings>> pendingWorlds = new HashMap<>();
+    // Lazy mode: regions with a build in progress, so each is only requested once
+    private final Set<String> building = ConcurrentHashMap.newKeySet();
+    // Worlds whose footprints are due to be re-read after their WorldGuard regions changed
+    private final Set<String> footprintRefreshes = ConcurrentHashMap.newKeySet();
+    // Build settings, read from the config on the main thread; geometry builds run elsewhere
+    private volatile boolean lazy;
+    private volatile boolean coalesce;
 
     public PermanentRegionManager(RegionVisionPlugin plugin) {
         this.plugin = plugin;
-        this.file = new File(plugin.getDataFolder(), "permanent_regions.yml");
+        this.storage = createStorage();
+        int threads = plugin.getConfig().getInt("performance.geometry-threads", 0);
+        if (threads <= 0) threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.geometryPool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("RegionVision-Geometry-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        readSettings();
         load();
+        // Redefines and priority changes only show up in the query index
+        RegionQueryService queries = plugin.getRegionQueryService();
+        if (queries != null) queries.addChangeListener(this::scheduleFootprintRefresh);
     }
 
-    public void load() {
-        if (!file.exists()) {
+    private PermanentRegionManager(RegionVisionPlugin plugin, RegionStorage storage, ForkJoinPool geometryPool) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.geometryPool = geometryPool;
+    }
+
+    /**
+     * A manager holding the given regions in memory only, for benchmarks and tests that run
+     * without a server: lookups and {@link #getVersion()} work, nothing is built or saved.
+     */
+    public static PermanentRegionManager detached(Collection<RegionSettings> regions) {
+        PermanentRegionManager manager = new PermanentRegionManager(null, null, null);
+        for (RegionSettings settings : regions) manager.regions.put(settings.getKey(), settings);
+        return manager;
+    }
+
+    private void readSettings() {
+        lazy = "LAZY".equalsIgnoreCase(plugin.getConfig().getString("performance.geometry-build", "EAGER"));
+        coalesce = plugin.getConfig().getBoolean("performance.coalesce-edges", true);
+    }
+
+    private RegionStorage createStorage() {
+        File folder = plugin.getDataFolder();
+        folder.mkdirs();
+        YamlRegionStorage yaml = new YamlRegionStorage(new File(folder, "permanent_regions.yml"));
+        BinaryRegionStorage binary = new BinaryRegionStorage(
+                new File(folder, "permanent_regions.dat"),
+                new File(folder, "permanent_regions.journal"),
+                plugin.getConfig().getInt("storage.compact-after", 1000));
+        boolean useYaml = "YAML".equalsIgnoreCase(plugin.getConfig().getString("storage.type", "BINARY"));
+
+        if (yaml.getFile().exists() && binary.exists()) {
+            plugin.getLogger().warning("Both " + yaml.getFile().getName() + " and " + binary.getSnapshotFile().getName()
+                    + " exist; using " + (useYaml ? "YAML" : "binary") + " storage and ignoring the other.");
+            return useYaml ? yaml : binary;
+        }
+        if (useYaml) {
+            if (!binary.exists()) return yaml;
             try {
-                file.createNewFile();
+                int count = StorageMigration.toYaml(binary, yaml);
+                plugin.getLogger().info("Migrated " + count + " permanent regions to YAML storage.");
+                return yaml;
             } catch (IOException e) {
-                e.printStackTrace();
+                plugin.getLogger().severe("Could not migrate permanent regions to YAML, still using binary storage: " + e.getMessage());
+                return binary;
             }
         }
-        config = YamlConfiguration.loadConfiguration(file);
+        if (!yaml.getFile().exists()) return binary;
+        try {
+            int count = StorageMigration.toBinary(yaml, binary);
+            plugin.getLogger().info("Migrated " + count + " permanent regions to binary storage.");
+            return binary;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not migrate " + yaml.getFile().getName() + ", still using it: " + e.getMessage());
+            return yaml;
+        }
+    }
+
+    public void load() {
         regions.clear();
+        dirty.clear();
+        notifications.clear();
         geometryCache.clear();
+        worldIndex.clear();
+        footprints.clear();
+        edgeIndex.clear();
+        latestBuild.clear();
+        pendingWorlds.clear();
+        building.clear();
+        version.incrementAndGet();
 
-        for (String key : config.getKeys(false)) {
-            ConfigurationSection section = config.getConfigurationSection(key);
-            if (section == null) continue;
+        Collection<StoredRegion> stored;
+        try {
+            stored = storage.load();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load permanent regions: " + e.getMessage());
+            return;
+        }
 
+        for (StoredRegion s : stored) {
             RegionSettings settings = new RegionSettings(
-                key,
-                section.getString("world"),
-                Color.fromRGB(
-                    section.getInt("color.r", 255),
-                    section.getInt("color.g", 0),
-                    section.getInt("color.b", 0)
-                ),
-                section.getDouble("density", 0.5),
-                section.getInt("view-distance", 50),
-                section.getString("notification-type", "NONE"),
-                section.getString("notification-message", ""),
-                section.getBoolean("show-particles", true) // Default to showing particles
+                s.regionId(),
+                s.worldName(),
+                Color.fromRGB(s.red(), s.green(), s.blue()),
+                s.density(),
+                s.viewDistance(),
+                s.notificationType(),
+                s.notificationMessage(),
+                s.showParticles()
             );
-            regions.put(key.toLowerCase(), settings);
-            cacheGeometry(settings);
+            regions.put(settings.getKey(), settings);
+            compileNotification(settings);
         }
+        warmUp(regions.values());
+    }
+
+    /**
+     * Re-reads the permanent regions from storage and rebuilds the index and geometry, for
+     * /rv reload. Pending changes are written first, so no edit is lost. Main thread only.
+     */
+    public void reload() {
+        save();
+        try {
+            // The writer runs in order, so once this finishes every earlier write has too
+            writer.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Could not save permanent regions before reloading: " + e.getMessage());
+        }
+        readSettings();
+        load();
+    }
+
+    /**
+     * Prepares the geometry of the given regions: eagerly on the geometry pool with progress
+     * reporting, or, in lazy mode, only their bounds so {@link #requestGeometry} can build them
+     * once a player comes within range. Regions of worlds that aren't loaded yet wait for
+     * {@link #onWorldLoad}. Main thread only.
+     */
+    private void warmUp(Collection<RegionSettings> settingsList) {
+        if (!plugin.hasWorldGuard()) return;
+
+        List<RegionSettings> ready = new ArrayList<>();
+        int deferred = 0;
+        for (RegionSettings settings : settingsList) {
+            if (Bukkit.getWorld(settings.worldName) == null) {
+                pendingWorlds.computeIfAbsent(settings.worldName, w -> new ArrayList<>()).add(settings);
+                deferred++;
+            } else {
+                ready.add(settings);
+            }
+        }
+        if (deferred > 0) {
+            plugin.getLogger().info(deferred + " permanent regions wait for their world to load.");
+        }
+
+        // Every footprint is known before the first build, so merged edges are split correctly
+        for (RegionSettings settings : ready) resolveFootprint(settings);
+
+        if (isLazy()) {
+            for (RegionSettings settings : ready) indexBounds(settings);
+            return;
+        }
+        if (ready.isEmpty()) return;
+
+        int total = ready.size();
+        int step = Math.max(1, total / 10);
+        long start = System.currentTimeMillis();
+        AtomicInteger done = new AtomicInteger();
+        for (RegionSettings settings : ready) {
+            long token = nextBuild(settings);
+            geometryPool.execute(() -> {
+                try {
+                    buildGeometry(settings, token);
+                } finally {
+                    int n = done.incrementAndGet();
+                    if (n == total) {
+                        plugin.getLogger().info("Built geometry for " + total + " permanent regions in "
+                                + (System.currentTimeMillis() - start) + " ms.");
+                    } else if (n % step == 0) {
+                        plugin.getLogger().info("Building permanent region geometry: " + n + "/" + total);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Prepares the regions that were waiting for this world.
+     */
+    public void onWorldLoad(World world) {
+        List<RegionSettings> waiting = pendingWorlds.remove(world.getName());
+        if (waiting == null) return;
+        // Use the latest snapshot of each region; skip those removed while waiting
+        List<RegionSettings> current = new ArrayList<>();
+        for (RegionSettings settings : waiting) {
+            RegionSettings latest = regions.get(settings.getKey());
+            if (latest != null) current.add(latest);
+        }
+        warmUp(current);
+    }
+
+    /**
+     * Lazy mode: builds the region's geometry unless it is built or being built already.
+     */
+    public void requestGeometry(RegionSettings settings) {
+        String key = settings.getKey();
+        if (geometryCache.containsKey(key) || !building.add(key)) return;
+        long token = nextBuild(settings);
+        geometryPool.execute(() -> {
+            try {
+                buildGeometry(settings, token);
+            } finally {
+                building.remove(key);
+            }
+        });
+    }
+
+    private boolean isLazy() {
+        return lazy;
     }
 
     public void addRegion(ProtectedRegion region, World world) {
@@ -79,121 +318,458 @@ public class PermanentRegionManager {
             "",
             true
         );
-        regions.put(id.toLowerCase(), settings);
+        synchronized (regions) {
+            RegionSettings previous = regions.put(settings.getKey(), settings);
+            if (previous != null) unindexRegion(previous);
+        }
+        compileNotification(settings);
+        version.incrementAndGet();
         saveRegionToDisk(settings);
+        Footprint footprint = resolveFootprint(settings);
         cacheGeometry(settings);
+        rebuildNeighbors(settings.worldName, footprint);
     }
 
-    public void removeRegion(String regionId) {
-        regions.remove(regionId.toLowerCase());
-        geometryCache.remove(regionId.toLowerCase());
-        config.set(regionId.toLowerCase(), null);
-        saveConfig();
+    public void removeRegion(String worldName, String regionId) {
+        String key = StoredRegion.key(worldName, regionId);
+        synchronized (regions) {
+            RegionSettings removed = regions.remove(key);
+            geometryCache.remove(key);
+            if (removed != null) unindexRegion(removed);
+        }
+        latestBuild.remove(key);
+        notifications.remove(key);
+        version.incrementAndGet();
+        markDirty(key);
+        // Borders this region drew go back to its neighbours
+        rebuildNeighbors(worldName, forgetFootprint(worldName, key));
     }
 
-    public void updateColor(String regionId, int r, int g, int b) {
-        RegionSettings settings = regions.get(regionId.toLowerCase());
-        if (settings != null) {
-            settings.color = Color.fromRGB(r, g, b);
-            saveRegionToDisk(settings);
+    public void updateColor(String worldName, String regionId, int r, int g, int b) {
+        Color color = Color.fromRGB(r, g, b);
+        synchronized (regions) {
+            RegionSettings settings = replace(worldName, regionId, s -> s.withColor(color));
+            if (settings == null) return;
+            // Geometry and border ownership are unchanged, only the shared payload needs the new colour
+            geometryCache.computeIfPresent(settings.getKey(),
+                    (key, payload) -> new ParticlePayload(payload.getGeometry(), settings.color, VisualizerManager.PARTICLE_SIZE_REGION));
         }
     }
     
-    public void updateDensity(String regionId, double density) {
-        RegionSettings settings = regions.get(regionId.toLowerCase());
-        if (settings != null) {
-            settings.density = density;
-            saveRegionToDisk(settings);
-            cacheGeometry(settings);
-        }
+    public void updateDensity(String worldName, String regionId, double density) {
+        RegionSettings settings = replace(worldName, regionId, s -> s.withDensity(density));
+        if (settings == null) return;
+        cacheGeometry(settings);
+        // Borders are only shared between regions of equal density
+        rebuildNeighbors(worldName, footprints.get(settings.getKey()));
     }
     
-    public void updateViewDistance(String regionId, int distance) {
-        RegionSettings settings = regions.get(regionId.toLowerCase());
-        if (settings != null) {
-            settings.viewDistance = distance;
-            saveRegionToDisk(settings);
-        }
+    public void updateViewDistance(String worldName, String regionId, int distance) {
+        RegionSettings settings = replace(worldName, regionId, s -> s.withViewDistance(distance));
+        if (settings == null || !isCoalescing()) return;
+        // Borders are only shared between regions of equal view distance
+        cacheGeometry(settings);
+        rebuildNeighbors(worldName, footprints.get(settings.getKey()));
     }
     
-    public void updateNotification(String regionId, String type, String message) {
-        RegionSettings settings = regions.get(regionId.toLowerCase());
-        if (settings != null) {
-            settings.notificationType = type;
-            settings.notificationMessage = message;
-            saveRegionToDisk(settings);
-        }
+    public void updateNotification(String worldName, String regionId, String type, String message) {
+        RegionSettings settings = replace(worldName, regionId, s -> s.withNotification(type, message));
+        if (settings != null) compileNotification(settings);
     }
 
-    public void updateParticles(String regionId, boolean state) {
-        RegionSettings settings = regions.get(regionId.toLowerCase());
-        if (settings != null) {
-            settings.showParticles = state;
-            saveRegionToDisk(settings);
+    public void updateParticles(String worldName, String regionId, boolean state) {
+        RegionSettings settings = replace(worldName, regionId, s -> s.withParticles(state));
+        if (settings == null || !isCoalescing()) return;
+        // A hidden region no longer draws shared borders; its neighbours take them over, or hand them back
+        Footprint footprint = resolveFootprint(settings);
+        cacheGeometry(settings);
+        rebuildNeighbors(worldName, footprint);
+    }
+
+    /**
+     * Publishes a changed copy of the region's settings (copy-on-write), moves its index entry
+     * to the new copy and schedules the save. Readers on other threads always see either the
+     * old or the new snapshot, never a half-applied change. Returns the new settings, or null.
+     */
+    private RegionSettings replace(String worldName, String regionId, UnaryOperator<RegionSettings> change) {
+        RegionSettings previous;
+        RegionSettings updated;
+        synchronized (regions) {
+            previous = regions.get(StoredRegion.key(worldName, regionId));
+            if (previous == null) return null;
+            updated = change.apply(previous);
+            regions.put(updated.getKey(), updated);
+
+            unindexRegion(previous);
+            Footprint footprint = footprints.get(updated.getKey());
+            if (footprint != null && (geometryCache.containsKey(updated.getKey()) || isLazy())) {
+                indexRegion(updated, footprint);
+            }
         }
+        saveRegionToDisk(updated);
+        return updated;
     }
 
     public Collection<RegionSettings> getAllRegions() {
         return regions.values();
     }
+
+    public RegionSettings getRegion(String worldName, String regionId) {
+        return regions.get(StoredRegion.key(worldName, regionId));
+    }
+
+    /**
+     * Returns the precompiled entry notification of the region, {@link RegionNotification#NONE} if it has none.
+     */
+    public RegionNotification getNotification(String worldName, String regionId) {
+        return notifications.getOrDefault(StoredRegion.key(worldName, regionId), RegionNotification.NONE);
+    }
     
-    public List<Location> getCachedGeometry(String regionId) {
-        return geometryCache.get(regionId.toLowerCase());
+    public Wireframe getCachedGeometry(String worldName, String regionId) {
+        ParticlePayload payload = geometryCache.get(StoredRegion.key(worldName, regionId));
+        return payload != null ? payload.getGeometry() : null;
+    }
+
+    /**
+     * Returns the shared, ready-to-send particle payload of the region, or null while it is being built.
+     */
+    public ParticlePayload getPayload(String worldName, String regionId) {
+        return geometryCache.get(StoredRegion.key(worldName, regionId));
     }
     
-    public boolean isPermanent(String regionId) {
-        return regions.containsKey(regionId.toLowerCase());
+    /**
+     * Collects the permanent regions in the world whose bounds are within their
+     * view distance of the given position. Candidates still need an exact distance check.
+     */
+    public void getRegionsNear(String worldName, double x, double y, double z, Collection<RegionSettings> out) {
+        SpatialGrid<RegionSettings> index = worldIndex.get(worldName);
+        if (index != null) index.query(x, y, z, out);
+    }
+
+    /**
+     * Changes whenever a permanent region is added or removed, so callers can drop derived caches.
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Number of permanent regions whose particle geometry is built and cached.
+     */
+    public int getCachedGeometryCount() {
+        return geometryCache.size();
+    }
+
+    /**
+     * Block bounds of the region as {@code {minX, minY, minZ, maxX, maxY, maxZ}}, or null while unknown.
+     */
+    public int[] getBounds(String worldName, String regionId) {
+        Footprint f = footprints.get(StoredRegion.key(worldName, regionId));
+        if (f == null) return null;
+        return new int[]{f.minX(), f.minY(), f.minZ(), f.maxX(), f.maxY(), f.maxZ()};
+    }
+
+    public boolean isPermanent(String worldName, String regionId) {
+        return regions.containsKey(StoredRegion.key(worldName, regionId));
+    }
+
+    private void compileNotification(RegionSettings settings) {
+        notifications.put(settings.getKey(),
+                RegionNotification.compile(settings.notificationType, settings.notificationMessage));
     }
 
     private void cacheGeometry(RegionSettings settings) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            World world = Bukkit.getWorld(settings.worldName);
-            if (world == null) return;
-            
-            ProtectedRegion region = plugin.getWorldGuardUtil().getRegionByName(world, settings.regionId);
-            if (region == null) return;
-
-            Vector min = new Vector(region.getMinimumPoint().getX(), region.getMinimumPoint().getY(), region.getMinimumPoint().getZ());
-            Vector max = new Vector(region.getMaximumPoint().getX(), region.getMaximumPoint().getY(), region.getMaximumPoint().getZ());
-
-            List<Location> points = GeometryUtil.getCuboidWireframe(world, min, max, settings.density);
-            geometryCache.put(settings.regionId.toLowerCase(), points);
+        if (!plugin.hasWorldGuard()) return;
+        if (isLazy()) {
+            // Drop the stale build, and any still running; the next player in range requests a new one
+            nextBuild(settings);
+            geometryCache.remove(settings.getKey());
+            indexBounds(settings);
+            return;
+        }
+        long token = nextBuild(settings);
+        geometryPool.execute(() -> buildGeometry(settings, token));
+    }
+
+    private long nextBuild(RegionSettings settings) {
+        long token = buildCounter.incrementAndGet();
+        latestBuild.put(settings.getKey(), token);
+        return token;
+    }
+
+    private void buildGeometry(RegionSettings settings, long token) {
+        String key = settings.getKey();
+        Footprint footprint = footprints.get(key);
+        if (footprint == null) return;
+
+        long started = System.nanoTime();
+        int streamingThreshold = plugin.getVisualizerManager().getStreamingThreshold();
+        Wireframe points = isCoalescing()
+                ? buildOwnedEdges(settings, footprint, streamingThreshold)
+                : GeometryUtil.getCuboidWireframe(new Vector(footprint.minX(), footprint.minY(), footprint.minZ()),
+                        new Vector(footprint.maxX(), footprint.maxY(), footprint.maxZ()), settings.density, streamingThreshold);
+        plugin.getPerformanceMetrics().recordBuild(key, System.nanoTime() - started);
+        synchronized (regions) {
+            // The region may have been removed or changed while we were building; a newer build
+            // replaces this one, other changes only need the latest snapshot's colour and view distance
+            RegionSettings current = regions.get(key);
+            if (current == null || !Long.valueOf(token).equals(latestBuild.get(key))) return;
+            geometryCache.put(key, new ParticlePayload(points, current.color, VisualizerManager.PARTICLE_SIZE_REGION));
+            indexRegion(current, footprint);
+        }
+    }
+
+    /**
+     * The edges of the region minus the stretches a higher-ranked visible neighbour draws, so a
+     * border shared by plots is sent once instead of two to four times. Only the regions touching
+     * this one are merged, which keeps a change local to its neighbourhood.
+     * <p>
+     * A neighbour only takes over a border when it is drawn the same way: visible, with the same
+     * view distance and density. Otherwise players in range of one region but not of the other
+     * would see a gap, so both draw their full outline there.
+     */
+    private Wireframe buildOwnedEdges(RegionSettings settings, Footprint footprint, int streamingThreshold) {
+        List<Footprint> touching = new ArrayList<>();
+        SpatialGrid<Footprint> grid = edgeIndex.get(settings.worldName);
+        if (grid != null) {
+            grid.query(footprint.minX(), footprint.minY(), footprint.minZ(),
+                    footprint.maxX() + 1.0, footprint.maxY() + 1.0, footprint.maxZ() + 1.0, touching);
+        }
+        touching.removeIf(other -> other.key().equals(footprint.key()) || !sharesEdges(settings, regions.get(other.key())));
+        touching.add(footprint);
+        touching.sort(BY_RANK);
+
+        // Ranks within this neighbourhood keep the global order, so neighbours agree on every owner
+        EdgeMerger merger = new EdgeMerger(2);
+        for (int rank = 0; rank < touching.size(); rank++) {
+            Footprint f = touching.get(rank);
+            merger.addCuboid(f.minX(), f.minY(), f.minZ(), f.maxX(), f.maxY(), f.maxZ(), f == footprint ? 0 : 1, rank);
+        }
+        Wireframe owned = merger.build(settings.density, streamingThreshold)[0];
+        return owned != null ? owned : Wireframe.EMPTY;
+    }
+
+    // Equal settings on both sides, so neighbours always agree on who draws a shared border
+    private static boolean sharesEdges(RegionSettings settings, RegionSettings neighbor) {
+        return neighbor != null && neighbor.showParticles
+                && neighbor.viewDistance == settings.viewDistance
+                && Double.compare(neighbor.density, settings.density) == 0;
+    }
+
+    /**
+     * Reads the region's bounds and priority from WorldGuard and, if it is visible and edges are
+     * coalesced, registers it for edge merging. Main thread only. Returns null without a region.
+     */
+    private Footprint resolveFootprint(RegionSettings settings) {
+        if (!plugin.hasWorldGuard()) return null;
+        World world = Bukkit.getWorld(settings.worldName);
+        if (world == null) return null;
+        ProtectedRegion region = plugin.getWorldGuardUtil().getRegionByName(world, settings.regionId);
+        if (region == null) return null;
+
+        BlockVector3 lo = region.getMinimumPoint();
+        BlockVector3 hi = region.getMaximumPoint();
+        Footprint footprint = new Footprint(settings.getKey(), region.getPriority(),
+                lo.getX(), lo.getY(), lo.getZ(), hi.getX(), hi.getY(), hi.getZ());
+        Footprint previous = footprints.put(settings.getKey(), footprint);
+
+        SpatialGrid<Footprint> grid = edgeIndex.computeIfAbsent(settings.worldName, w -> new SpatialGrid<>(INDEX_CELL_SHIFT));
+        if (previous != null) grid.remove(previous);
+        if (isCoalescing() && settings.showParticles) {
+            grid.put(footprint, footprint.minX(), footprint.minY(), footprint.minZ(),
+                    footprint.maxX() + 1.0, footprint.maxY() + 1.0, footprint.maxZ() + 1.0);
+        }
+        return footprint;
+    }
+
+    // Snapshots are published off the main thread; one refresh per world and tick is enough
+    private void scheduleFootprintRefresh(String worldName) {
+        if (!footprintRefreshes.add(worldName)) return;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            footprintRefreshes.remove(worldName);
+            refreshFootprints(worldName);
         });
     }
 
+    /**
+     * Re-reads the footprints of the world's permanent regions after its WorldGuard regions changed,
+     * e.g. through a redefine or a new priority. Regions whose bounds or priority moved are rebuilt,
+     * together with the neighbours they shared borders with before and share borders with now.
+     * Regions deleted from WorldGuard lose their geometry. Main thread only.
+     */
+    public void refreshFootprints(String worldName) {
+        if (!plugin.hasWorldGuard() || Bukkit.getWorld(worldName) == null || pendingWorlds.containsKey(worldName)) return;
+
+        Set<String> rebuild = new LinkedHashSet<>();
+        List<Footprint> moved = new ArrayList<>();
+        for (RegionSettings settings : regions.values()) {
+            if (!settings.worldName.equals(worldName)) continue;
+            String key = settings.getKey();
+            Footprint previous = footprints.get(key);
+            Footprint current = resolveFootprint(settings);
+            if (current == null) {
+                if (previous == null) continue;
+                // Gone from WorldGuard: nothing left to outline
+                forgetFootprint(worldName, key);
+                nextBuild(settings);
+                geometryCache.remove(key);
+                unindexRegion(settings);
+                moved.add(previous);
+                continue;
+            }
+            if (current.equals(previous)) continue;
+            rebuild.add(key);
+            if (previous != null) moved.add(previous);
+            moved.add(current);
+        }
+
+        // Every footprint is current before anything is rebuilt, so merged edges are split correctly
+        for (Footprint footprint : moved) collectNeighbors(worldName, footprint, rebuild);
+        for (String key : rebuild) {
+            RegionSettings settings = regions.get(key);
+            if (settings != null) cacheGeometry(settings);
+        }
+    }
+
+    private Footprint forgetFootprint(String worldName, String key) {
+        Footprint footprint = footprints.remove(key);
+        SpatialGrid<Footprint> grid = edgeIndex.get(worldName);
+        if (footprint != null && grid != null) grid.remove(footprint);
+        return footprint;
+    }
+
+    // Rebuilds the visible regions sharing edges with the footprint after their ownership changed
+    private void rebuildNeighbors(String worldName, Footprint footprint) {
+        Set<String> neighbors = new LinkedHashSet<>();
+        collectNeighbors(worldName, footprint, neighbors);
+        for (String key : neighbors) {
+            RegionSettings neighbor = regions.get(key);
+            if (neighbor != null) cacheGeometry(neighbor);
+        }
+    }
+
+    // Adds the keys of the visible regions sharing edges with the footprint
+    private void collectNeighbors(String worldName, Footprint footprint, Set<String> out) {
+        if (footprint == null || !isCoalescing()) return;
+        SpatialGrid<Footprint> grid = edgeIndex.get(worldName);
+        if (grid == null) return;
+
+        List<Footprint> touching = new ArrayList<>();
+        grid.query(footprint.minX(), footprint.minY(), footprint.minZ(),
+                footprint.maxX() + 1.0, footprint.maxY() + 1.0, footprint.maxZ() + 1.0, touching);
+        for (Footprint other : touching) {
+            if (!other.key().equals(footprint.key())) out.add(other.key());
+        }
+    }
+
+    private boolean isCoalescing() {
+        return coalesce;
+    }
+
+    // Lazy mode: index the region's bounds, so it is found near players before it has geometry
+    private void indexBounds(RegionSettings settings) {
+        Footprint footprint = footprints.get(settings.getKey());
+        if (footprint != null) indexRegion(settings, footprint);
+    }
+
+    private void indexRegion(RegionSettings settings, Footprint footprint) {
+        double d = settings.viewDistance;
+        worldIndex.computeIfAbsent(settings.worldName, w -> new SpatialGrid<>(INDEX_CELL_SHIFT))
+                .put(settings, footprint.minX() - d, footprint.minY() - d, footprint.minZ() - d,
+                        footprint.maxX() + 1.0 + d, footprint.maxY() + 1.0 + d, footprint.maxZ() + 1.0 + d);
+    }
+
+    private void unindexRegion(RegionSettings settings) {
+        SpatialGrid<RegionSettings> index = worldIndex.get(settings.worldName);
+        if (index != null) index.remove(settings);
+    }
+
     private void saveRegionToDisk(RegionSettings s) {
-        String path = s.regionId.toLowerCase();
-        config.set(path + ".world", s.worldName);
-        config.set(path + ".color.r", s.color.getRed());
-        config.set(path + ".color.g", s.color.getGreen());
-        config.set(path + ".color.b", s.color.getBlue());
-        config.set(path + ".density", s.density);
-        config.set(path + ".view-distance", s.viewDistance);
-        config.set(path + ".notification-type", s.notificationType);
-        config.set(path + ".notification-message", s.notificationMessage);
-        config.set(path + ".show-particles", s.showParticles);
-        saveConfig();
-    }
-
-    private void saveConfig() {
+        markDirty(s.getKey());
+    }
+
+    private void markDirty(String key) {
+        dirty.add(key);
+        if (saveScheduled) return;
+        saveScheduled = true;
+        // Rapid edits within the delay end up in a single write
+        long delay = Math.max(1, plugin.getConfig().getLong("performance.save-delay", 40));
+        Bukkit.getScheduler().runTaskLater(plugin, this::save, delay);
+    }
+
+    /**
+     * Snapshots the dirty regions and hands them to the writer thread. Main thread only.
+     */
+    private void save() {
+        saveScheduled = false;
+        if (dirty.isEmpty()) return;
+        List<StoredRegion> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (String key : dirty) {
+            RegionSettings settings = regions.get(key);
+            if (settings == null) removed.add(key);
+            else changed.add(toStored(settings));
+        }
+        dirty.clear();
+
+        writer.execute(() -> {
+            try {
+                storage.write(changed, removed);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not save permanent regions: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes any pending changes and waits for the writer to finish. Called on disable.
+     */
+    public void shutdown() {
+        geometryPool.shutdownNow();
+        save();
+        writer.execute(() -> {
+            try {
+                storage.close();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not close permanent region storage: " + e.getMessage());
+            }
+        });
+        writer.shutdown();
         try {
-            config.save(file);
-        } catch (IOException e) {
-            e.printStackTrace();
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out while saving permanent regions");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    public static class RegionSettings {
-        public String regionId;
-        public String worldName;
-        public Color color;
-        public double density;
-        public int viewDistance;
-        public String notificationType;
-        public String notificationMessage;
-        public boolean showParticles;
+    private static StoredRegion toStored(RegionSettings s) {
+        return new StoredRegion(s.regionId, s.worldName, s.color.getRed(), s.color.getGreen(), s.color.getBlue(),
+                s.density, s.viewDistance, s.notificationType, s.notificationMessage, s.showParticles);
+    }
+
+    /**
+     * Immutable snapshot of a permanent region's settings. Changes publish a new copy with a
+     * higher version, so render workers can read settings without locking.
+     */
+    public static final class RegionSettings {
+        public final String regionId;
+        public final String worldName;
+        public final Color color;
+        public final double density;
+        public final int viewDistance;
+        public final String notificationType;
+        public final String notificationMessage;
+        public final boolean showParticles;
+        public final long version;
+        private final String key;
 
         public RegionSettings(String regionId, String worldName, Color color, double density, int viewDistance, String notificationType, String notificationMessage, boolean showParticles) {
+            this(regionId, worldName, color, density, viewDistance, notificationType, notificationMessage, showParticles, 0);
+        }
+
+        private RegionSettings(String regionId, String worldName, Color color, double density, int viewDistance, String notificationType, String notificationMessage, boolean showParticles, long version) {
             this.regionId = regionId;
             this.worldName = worldName;
             this.color = color;
@@ -202,6 +778,33 @@ public class PermanentRegionManager {
             this.notificationType = notificationType;
             this.notificationMessage = notificationMessage;
             this.showParticles = showParticles;
+            this.version = version;
+            this.key = StoredRegion.key(worldName, regionId);
+        }
+
+        public RegionSettings withColor(Color color) {
+            return new RegionSettings(regionId, worldName, color, density, viewDistance, notificationType, notificationMessage, showParticles, version + 1);
+        }
+
+        public RegionSettings withDensity(double density) {
+            return new RegionSettings(regionId, worldName, color, density, viewDistance, notificationType, notificationMessage, showParticles, version + 1);
+        }
+
+        public RegionSettings withViewDistance(int viewDistance) {
+            return new RegionSettings(regionId, worldName, color, density, viewDistance, notificationType, notificationMessage, showParticles, version + 1);
+        }
+
+        public RegionSettings withNotification(String type, String message) {
+            return new RegionSettings(regionId, worldName, color, density, viewDistance, type, message, showParticles, version + 1);
+        }
+
+        public RegionSettings withParticles(boolean showParticles) {
+            return new RegionSettings(regionId, worldName, color, density, viewDistance, notificationType, notificationMessage, showParticles, version + 1);
+        }
+
+        /** World-qualified key, see {@link StoredRegion#key(String, String)}. */
+        public String getKey() {
+            return key;
         }
     }
-}
\ No newline at end of file
+}
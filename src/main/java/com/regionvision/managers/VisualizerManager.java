@@ -1,195 +1,852 @@
 package com.regionvision.managers;
 
 import com.regionvision.RegionVisionPlugin;
+import com.regionvision.render.BukkitParticleEmitter;
+import com.regionvision.render.BukkitCuiChannel;
+import com.regionvision.render.CountingParticleEmitter;
+import com.regionvision.render.CuiRenderer;
+import com.regionvision.render.DisplayRenderer;
+import com.regionvision.render.ParticlePayload;
+import com.regionvision.render.RegionRenderer;
+import com.regionvision.render.RenderScheduler;
+import com.regionvision.utils.EdgeMerger;
+import com.regionvision.utils.GeometryCache;
 import com.regionvision.utils.GeometryUtil;
+import com.regionvision.utils.LevelOfDetail;
+import com.regionvision.utils.PerformanceMetrics;
+import com.regionvision.utils.SelectionGeometry;
+import com.regionvision.utils.SpanList;
+import com.regionvision.utils.TimerWheel;
+import com.regionvision.utils.ViewCone;
+import com.regionvision.utils.Wireframe;
 import com.sk89q.worldedit.IncompleteRegionException;
+import com.sk89q.worldedit.LocalSession;
+import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.Bukkit;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.Particle;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class VisualizerManager {
 
+    /**
+     * The kinds of visualization; each is drawn by the renderer configured for it under
+     * {@code visualizer.renderer}.
+     */
+    public enum Visualization {
+        REGION, SELECTION, PERMANENT;
+
+        String configPath() {
+            return "visualizer.renderer." + name().toLowerCase();
+        }
+    }
+
+    /**
+     * The config values the render path reads, parsed on enable and on /rv reload instead of
+     * looked up every tick. Immutable, so render workers may read it too.
+     */
+    private record Settings(int renderPeriod, boolean asyncRender, double density, long durationTicks,
+                            int streamingThreshold, LevelOfDetail levelOfDetail,
+                            boolean culling, double cullingRadius, double viewAngle,
+                            boolean cui, Set<Visualization> displayed,
+                            Color allowed, Color denied, Color selection) {}
+
     private final RegionVisionPlugin plugin;
-    private final Map<UUID, BukkitTask> activeTasks = new ConcurrentHashMap<>();
-    private final Map<UUID, BukkitTask> activeSelectionTasks = new ConcurrentHashMap<>();
-    
-    private final Map<UUID, Long> staticRegionRequestIds = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> selectionRequestIds = new ConcurrentHashMap<>();
+    private volatile Settings settings;
+    // One entry per player with something on screen; drained by the shared render loop
+    private final Map<UUID, ViewerState> viewers = new ConcurrentHashMap<>();
+    // Players holding the WorldEdit wand, kept up to date from item events instead of polled
+    private final Set<UUID> wandHolders = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requestCounter = new AtomicLong();
 
-    private static final float PARTICLE_SIZE_REGION = 2.5f; 
-    private static final float PARTICLE_SIZE_SELECTION = 2.0f;
-    
-    private BukkitTask globalPermanentTask;
+    static final float PARTICLE_SIZE_REGION = 2.5f; 
+    static final float PARTICLE_SIZE_SELECTION = 2.0f;
+
+    // Colour slots of a region session
+    private static final int ALLOWED = 0;
+    private static final int DENIED = 1;
+    private static final int SESSION_COLORS = 2;
+    private static final ParticlePayload[] NO_PAYLOADS = new ParticlePayload[0];
+
+    // Keys of the shapes handed to retained renderers; permanent regions use their region key
+    private static final String REGION_SHAPE = "region";
+    private static final String SELECTION_SHAPE = "selection";
+
+    /** Cost keys under which all region sessions and all selections are ranked. */
+    public static final String SESSION_COST = "[sessions]";
+    public static final String SELECTION_COST = "[selections]";
+
+    private final CountingParticleEmitter emitter = new CountingParticleEmitter(new BukkitParticleEmitter());
+    private final RenderScheduler scheduler = new RenderScheduler(emitter, this::createViewCone);
+    private final TimerWheel<ViewerState> expiries = new TimerWheel<>(1024);
+    private final GeometryCache geometryCache = new GeometryCache(2_000_000L, 300_000L);
+    private final PerformanceMetrics metrics;
+    private long tick;
+
+    // Culling runs on this pool, one task per player; only the send stays on the main thread
+    private final ForkJoinPool renderPool;
+    private CompletableFuture<List<PreparedItem>> pendingFrame;
+    private long frameTick;
+
+    private BukkitTask renderTask;
+
+    // Retained renderers, for visualizations not drawn with particles
+    private final DisplayRenderer displayRenderer;
+    private final CuiRenderer cuiRenderer;
+    private final Map<UUID, RetainedRegions> retainedPermanent = new HashMap<>();
+
+    // Permanent regions a player sees through a retained renderer, with the box each was shown as
+    private static final class RetainedRegions {
+        final Player player;
+        final RegionRenderer renderer;
+        final Map<String, RegionRenderer.Box> shown = new HashMap<>();
+
+        RetainedRegions(Player player, RegionRenderer renderer) {
+            this.player = player;
+            this.renderer = renderer;
+        }
+    }
+
+    // Identifies one visualization drawn for one viewer
+    private record ViewerKey(Object source, UUID viewer) {}
+
+    // Source of the key of one selection part
+    private record SelectionPart(int index) {}
+
+    /**
+     * What a render worker needs to know about one player, captured on the main thread.
+     * The temporary payloads are only set when the player's phase comes up in the frame.
+     */
+    private record ViewerFrame(Player player, String worldName, double x, double y, double z, ViewCone cone,
+                               ViewerState state, ParticlePayload[] regions, ParticlePayload[] selection,
+                               boolean permanentParticles) {}
+
+    // Work for the ticks fromTick..toTick, culled off the main thread
+    private record Frame(long fromTick, long toTick, int period, LevelOfDetail levelOfDetail, List<ViewerFrame> viewers) {}
+
+    // A culled payload, ready to send; settings is null for temporary visualizations
+    private record PreparedItem(ViewerKey key, Player viewer, ParticlePayload payload, SpanList spans,
+                                ViewerState state, PermanentRegionManager.RegionSettings settings) {}
+
+    /**
+     * The temporary visualizations of one player. Request ids discard async results
+     * that were superseded or cleared while they were being built.
+     */
+    private static final class ViewerState {
+        final Player player;
+        final ViewerKey[] regionKeys;
+        final ViewerKey[] selectionKeys;
+
+        long regionRequest;
+        // The region session, one payload per colour slot; replaced as a whole, never modified
+        ParticlePayload[] regions = NO_PAYLOADS;
+        TimerWheel.Timeout<ViewerState> regionExpiry;
+        // Set while the session or selection is drawn by a retained renderer instead of particles
+        RegionRenderer regionRenderer;
+        RegionRenderer selectionRenderer;
+        RegionRenderer.Box selectionBox;
+
+        long selectionRequest;
+        // One payload per selection part, null for empty parts; replaced as a whole, never modified
+        ParticlePayload[] selection = NO_PAYLOADS;
+        SelectionGeometry selectionGeometry;
+
+        ViewerState(Player player) {
+            this.player = player;
+            this.regionKeys = new ViewerKey[]{new ViewerKey("region", player.getUniqueId()),
+                    new ViewerKey("region-denied", player.getUniqueId())};
+            this.selectionKeys = new ViewerKey[SelectionGeometry.PARTS];
+            for (int i = 0; i < selectionKeys.length; i++) {
+                selectionKeys[i] = new ViewerKey(new SelectionPart(i), player.getUniqueId());
+            }
+        }
+
+        boolean isIdle() {
+            return regionRequest == 0 && selectionRequest == 0;
+        }
+
+        boolean isShowing(ParticlePayload payload) {
+            for (ParticlePayload part : selection) {
+                if (payload == part) return true;
+            }
+            for (ParticlePayload region : regions) {
+                if (payload == region) return true;
+            }
+            return false;
+        }
+    }
 
     public VisualizerManager(RegionVisionPlugin plugin) {
         this.plugin = plugin;
-        startGlobalPermanentTask();
+        this.metrics = plugin.getPerformanceMetrics();
+        this.displayRenderer = new DisplayRenderer(plugin);
+        this.cuiRenderer = new CuiRenderer(new BukkitCuiChannel(plugin));
+        scheduler.setObserver((key, viewer, particles) ->
+                metrics.recordSend(costKey((ViewerKey) key), viewer.getUniqueId(), particles));
+        int threads = plugin.getConfig().getInt("performance.render-threads", 0);
+        if (threads <= 0) threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.renderPool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("RegionVision-Render-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        reload();
+        startRenderLoop();
     }
 
-    private void startGlobalPermanentTask() {
-        globalPermanentTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            var manager = plugin.getPermanentRegionManager();
-            if (manager == null) return;
+    /**
+     * Re-reads the visualizer settings from the config. Main thread only.
+     */
+    public void reload() {
+        var config = plugin.getConfig();
+        Set<Visualization> displayed = EnumSet.noneOf(Visualization.class);
+        for (Visualization type : Visualization.values()) {
+            if ("DISPLAY".equalsIgnoreCase(config.getString(type.configPath(), "PARTICLES"))) displayed.add(type);
+        }
+        LevelOfDetail levelOfDetail = config.getBoolean("visualizer.lod.enabled", true)
+                ? new LevelOfDetail(config.getDoubleList("visualizer.lod.distances"), config.getInt("visualizer.lod.target-points", 4000))
+                : LevelOfDetail.NONE;
+
+        settings = new Settings(
+                Math.max(1, config.getInt("performance.render-period", 10)),
+                config.getBoolean("performance.async-render", true),
+                config.getDouble("visualizer.particle-density", 0.25),
+                config.getLong("visualizer.duration", 15) * 20L,
+                config.getInt("visualizer.streaming-threshold", GeometryUtil.DEFAULT_STREAMING_THRESHOLD),
+                levelOfDetail,
+                config.getBoolean("visualizer.culling.enabled", true),
+                config.getDouble("visualizer.culling.radius", 32),
+                config.getDouble("visualizer.culling.view-angle", 75),
+                config.getBoolean("visualizer.renderer.cui", true),
+                displayed,
+                getColor("allowed"), getColor("denied"), getColor("selection"));
 
-            for (PermanentRegionManager.RegionSettings settings : manager.getAllRegions()) {
-                // Skip if particles are disabled for this region
-                if (!settings.showParticles) continue;
+        scheduler.setBudgets(config.getInt("performance.particles-per-tick", 20000),
+                config.getInt("performance.particles-per-player-tick", 2000));
+        scheduler.setLevelOfDetail(levelOfDetail);
+        geometryCache.setLimits(config.getLong("visualizer.cache.max-points", 2_000_000L),
+                config.getLong("visualizer.cache.ttl-seconds", 300) * 1000L);
+        metrics.setWindowTicks(config.getInt("metrics.window", 60) * 20);
 
-                List<Location> points = manager.getCachedGeometry(settings.regionId);
-                if (points == null || points.isEmpty()) continue;
+        Material block = Material.matchMaterial(config.getString("visualizer.display.block", "WHITE_CONCRETE"));
+        if (block == null || !block.isBlock()) block = Material.WHITE_CONCRETE;
+        displayRenderer.setStyle(block.createBlockData(), (float) config.getDouble("visualizer.display.thickness", 0.0625),
+                config.getInt("visualizer.display.max-bar-length", 32));
+    }
 
-                Particle.DustOptions options = new Particle.DustOptions(settings.color, PARTICLE_SIZE_REGION);
-                
-                org.bukkit.World w = Bukkit.getWorld(settings.worldName);
-                if (w == null) continue;
-
-                for (Player p : w.getPlayers()) {
-                    if (points.get(0).distanceSquared(p.getLocation()) < (settings.viewDistance * settings.viewDistance)) {
-                        for (Location loc : points) {
-                            p.spawnParticle(Particle.DUST, loc, 1, options);
-                        }
-                    }
+    private void startRenderLoop() {
+        renderTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            long started = System.nanoTime();
+            Settings current = settings;
+            expiries.advance(this::expireRegion);
+            dropOfflineViewers();
+            if (tick % current.renderPeriod() == 0) {
+                syncRetainedPermanent();
+                displayRenderer.refresh();
+            }
+
+            if (current.asyncRender()) {
+                // Send the last frame once it is ready, then start culling the next one. A frame
+                // that takes longer than a tick covers the ticks it missed, so nothing is skipped
+                if (pendingFrame == null || pendingFrame.isDone()) {
+                    if (pendingFrame != null) submitPrepared(pendingFrame.join());
+                    Frame frame = captureFrame(current);
+                    pendingFrame = CompletableFuture.supplyAsync(() -> prepareFrame(frame), renderPool);
                 }
+            } else {
+                submitPrepared(prepareFrame(captureFrame(current)));
+            }
+
+            scheduler.flush();
+            tick++;
+
+            metrics.recordTime(PerformanceMetrics.Timer.RENDER_LOOP, System.nanoTime() - started);
+            metrics.endTick();
+        }, 20L, 1L);
+    }
+
+    // Session and selection costs are pooled; permanent regions are charged by their key
+    private static String costKey(ViewerKey key) {
+        Object source = key.source();
+        if ("region".equals(source) || "region-denied".equals(source)) return SESSION_COST;
+        if (source instanceof SelectionPart) return SELECTION_COST;
+        return source.toString();
+    }
+
+    private void dropOfflineViewers() {
+        Iterator<ViewerState> it = viewers.values().iterator();
+        while (it.hasNext()) {
+            ViewerState state = it.next();
+            if (state.player.isOnline()) continue;
+            if (state.regionExpiry != null) state.regionExpiry.cancel();
+            if (state.regionRenderer != null) state.regionRenderer.hideAll(state.player);
+            if (state.selectionRenderer != null) state.selectionRenderer.hideAll(state.player);
+            it.remove();
+        }
+    }
+
+    /**
+     * The retained renderer drawing this kind of visualization for the player, or null when it is
+     * drawn with particles. Players running a WorldEdit CUI mod get it drawn there, others the
+     * configured mode.
+     */
+    private RegionRenderer rendererFor(Player player, Visualization type) {
+        Settings current = settings;
+        if (current.cui() && cuiRenderer.isSupported(player)) return cuiRenderer;
+        return current.displayed().contains(type) ? displayRenderer : null;
+    }
+
+    /**
+     * Brings the permanent regions of players on a retained renderer in line with where they are:
+     * regions that came within view distance or changed are shown, those out of range hidden.
+     * Unchanged regions cost a comparison, nothing is sent. Main thread only.
+     */
+    private void syncRetainedPermanent() {
+        var manager = plugin.getPermanentRegionManager();
+        List<PermanentRegionManager.RegionSettings> candidates = new ArrayList<>();
+        Map<String, RegionRenderer.Box> wanted = new HashMap<>();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            RegionRenderer renderer = manager != null ? rendererFor(p, Visualization.PERMANENT) : null;
+            RetainedRegions retained = retainedPermanent.get(p.getUniqueId());
+            if (retained != null && retained.renderer != renderer) {
+                for (String key : retained.shown.keySet()) retained.renderer.hide(p, key);
+                retainedPermanent.remove(p.getUniqueId());
+                retained = null;
+            }
+            if (renderer == null) continue;
+
+            Location loc = p.getLocation();
+            candidates.clear();
+            wanted.clear();
+            manager.getRegionsNear(p.getWorld().getName(), loc.getX(), loc.getY(), loc.getZ(), candidates);
+            for (PermanentRegionManager.RegionSettings settings : candidates) {
+                if (!settings.showParticles) continue;
+                int[] b = manager.getBounds(settings.worldName, settings.regionId);
+                if (b == null) continue;
+                double dx = Math.max(0, Math.max(b[0] - loc.getX(), loc.getX() - (b[3] + 1)));
+                double dy = Math.max(0, Math.max(b[1] - loc.getY(), loc.getY() - (b[4] + 1)));
+                double dz = Math.max(0, Math.max(b[2] - loc.getZ(), loc.getZ() - (b[5] + 1)));
+                if (dx * dx + dy * dy + dz * dz > (double) settings.viewDistance * settings.viewDistance) continue;
+                wanted.put(settings.getKey(), new RegionRenderer.Box(b[0], b[1], b[2], b[3], b[4], b[5], settings.color));
+            }
+
+            if (retained == null) {
+                if (wanted.isEmpty()) continue;
+                retained = new RetainedRegions(p, renderer);
+                retainedPermanent.put(p.getUniqueId(), retained);
+            }
+            Iterator<String> shown = retained.shown.keySet().iterator();
+            while (shown.hasNext()) {
+                String key = shown.next();
+                if (wanted.containsKey(key)) continue;
+                renderer.hide(p, key);
+                shown.remove();
+            }
+            for (Map.Entry<String, RegionRenderer.Box> entry : wanted.entrySet()) {
+                renderer.show(p, entry.getKey(), List.of(entry.getValue()));
+                retained.shown.put(entry.getKey(), entry.getValue());
+            }
+            if (retained.shown.isEmpty()) retainedPermanent.remove(p.getUniqueId());
+        }
+
+        Iterator<RetainedRegions> it = retainedPermanent.values().iterator();
+        while (it.hasNext()) {
+            RetainedRegions retained = it.next();
+            if (retained.player.isOnline()) continue;
+            retained.renderer.hideAll(retained.player);
+            it.remove();
+        }
+    }
+
+    private void expireRegion(ViewerState state) {
+        for (ViewerKey key : state.regionKeys) scheduler.cancel(key);
+        if (state.regionRenderer != null) {
+            state.regionRenderer.hide(state.player, REGION_SHAPE);
+            state.regionRenderer = null;
+        }
+        state.regions = NO_PAYLOADS;
+        state.regionExpiry = null;
+        state.regionRequest = 0;
+        if (state.isIdle()) viewers.remove(state.player.getUniqueId(), state);
+    }
+
+    /**
+     * Snapshots every online player for the render workers. Main thread only.
+     */
+    private Frame captureFrame(Settings current) {
+        int period = current.renderPeriod();
+        long from = frameTick;
+        frameTick = tick + 1;
+
+        List<ViewerFrame> frames = new ArrayList<>();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            ViewerState state = viewers.get(p.getUniqueId());
+            ParticlePayload[] regions = NO_PAYLOADS;
+            ParticlePayload[] selection = NO_PAYLOADS;
+            if (state != null && isDue(RenderScheduler.phaseOf(p.getUniqueId(), period), from, tick, period)) {
+                regions = state.regions;
+                if (wandHolders.contains(p.getUniqueId())) selection = state.selection;
             }
-        }, 20L, 10L);
+            Location loc = p.getLocation();
+            frames.add(new ViewerFrame(p, p.getWorld().getName(), loc.getX(), loc.getY(), loc.getZ(),
+                    createViewCone(p), state, regions, selection, rendererFor(p, Visualization.PERMANENT) == null));
+        }
+        return new Frame(from, tick, period, current.levelOfDetail(), frames);
+    }
+
+    /**
+     * Culls the due visualizations of every player, one fork-join task per player. Reads only
+     * the captured frame and immutable geometry and settings, so it may run on any thread.
+     */
+    private List<PreparedItem> prepareFrame(Frame frame) {
+        long started = System.nanoTime();
+        List<ForkJoinTask<List<PreparedItem>>> tasks = new ArrayList<>(frame.viewers().size());
+        for (ViewerFrame viewer : frame.viewers()) {
+            tasks.add(ForkJoinTask.adapt(() -> prepareViewer(frame, viewer)));
+        }
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            for (ForkJoinTask<List<PreparedItem>> task : tasks) task.invoke();
+        }
+
+        List<PreparedItem> prepared = new ArrayList<>();
+        for (ForkJoinTask<List<PreparedItem>> task : tasks) {
+            prepared.addAll(task.join());
+        }
+        metrics.recordTime(PerformanceMetrics.Timer.FRAME_PREPARE, System.nanoTime() - started);
+        return prepared;
+    }
+
+    private List<PreparedItem> prepareViewer(Frame frame, ViewerFrame viewer) {
+        List<PreparedItem> out = new ArrayList<>();
+        ParticlePayload[] regions = viewer.regions();
+        for (int slot = 0; slot < regions.length; slot++) {
+            if (regions[slot] != null) prepare(frame, viewer, viewer.state().regionKeys[slot], regions[slot], null, out);
+        }
+        ParticlePayload[] selection = viewer.selection();
+        for (int part = 0; part < selection.length; part++) {
+            if (selection[part] != null) prepare(frame, viewer, viewer.state().selectionKeys[part], selection[part], null, out);
+        }
+
+        var manager = plugin.getPermanentRegionManager();
+        if (manager == null || !viewer.permanentParticles()) return out;
+
+        List<PermanentRegionManager.RegionSettings> candidates = new ArrayList<>();
+        // Only regions whose bounds come within their view distance of this player
+        manager.getRegionsNear(viewer.worldName(), viewer.x(), viewer.y(), viewer.z(), candidates);
+
+        for (PermanentRegionManager.RegionSettings settings : candidates) {
+            // Skip if particles are disabled for this region
+            if (!settings.showParticles) continue;
+            // Each region is drawn once per render period, at its own offset
+            if (!isDue(RenderScheduler.phaseOf(settings.getKey(), frame.period()), frame.fromTick(), frame.toTick(), frame.period())) continue;
+
+            ParticlePayload payload = manager.getPayload(settings.worldName, settings.regionId);
+            if (payload == null) {
+                // Lazy geometry: built the first time someone comes within range
+                manager.requestGeometry(settings);
+                continue;
+            }
+            if (payload.size() == 0) continue;
+
+            double viewDistance = settings.viewDistance;
+            if (payload.getGeometry().distanceSquared(viewer.x(), viewer.y(), viewer.z()) > viewDistance * viewDistance) continue;
+
+            prepare(frame, viewer, new ViewerKey(settings.getKey(), viewer.player().getUniqueId()), payload, settings, out);
+        }
+        return out;
+    }
+
+    private void prepare(Frame frame, ViewerFrame viewer, ViewerKey key, ParticlePayload payload,
+                         PermanentRegionManager.RegionSettings settings, List<PreparedItem> out) {
+        ViewCone cone = viewer.cone();
+        Wireframe geometry = payload.getGeometry();
+        int level = frame.levelOfDetail().select(geometry, cone.getEyeX(), cone.getEyeY(), cone.getEyeZ());
+        SpanList spans = new SpanList();
+        cone.clip(geometry, level, spans);
+        if (spans.isEmpty()) return;
+        out.add(new PreparedItem(key, viewer.player(), payload, spans, viewer.state(), settings));
+    }
+
+    /**
+     * Queues a prepared frame, dropping work whose visualization was cleared or replaced meanwhile.
+     */
+    private void submitPrepared(List<PreparedItem> prepared) {
+        var manager = plugin.getPermanentRegionManager();
+        for (PreparedItem item : prepared) {
+            if (!item.viewer().isOnline()) continue;
+            if (item.settings() != null) {
+                if (manager == null || manager.getPayload(item.settings().worldName, item.settings().regionId) != item.payload()) continue;
+            } else if (!item.state().isShowing(item.payload())) {
+                continue;
+            }
+            scheduler.submit(item.key(), item.viewer(), item.payload(), item.spans());
+        }
+    }
+
+    /**
+     * Whether a phase comes up in any tick from {@code from} to {@code to}, inclusive.
+     */
+    private static boolean isDue(int phase, long from, long to, int period) {
+        if (to - from + 1 >= period) return true;
+        return from + Math.floorMod(phase - from, period) <= to;
     }
 
     public void showRegion(Player player, ProtectedRegion region) {
+        showRegions(player, List.of(region));
+    }
+
+    /**
+     * Shows several regions as one session: borders they share are drawn once, and all of
+     * them expire together. Regions the player may build in and those they may not are kept
+     * apart by colour; where the two meet, the denied colour wins.
+     */
+    public void showRegions(Player player, Collection<ProtectedRegion> regions) {
         clearPlayerParticles(player);
+        if (regions.isEmpty()) return;
 
-        long requestId = System.nanoTime();
-        staticRegionRequestIds.put(player.getUniqueId(), requestId);
+        ViewerState state = viewers.computeIfAbsent(player.getUniqueId(), id -> new ViewerState(player));
+        long requestId = requestCounter.incrementAndGet();
+        state.regionRequest = requestId;
 
-        final boolean canBuild = plugin.getWorldGuardUtil().isMemberOrOwner(player, region);
-        final Color color = canBuild ? getColor("allowed") : getColor("denied");
-        final double density = plugin.getConfig().getDouble("visualizer.particle-density", 0.25);
+        // Membership is a WorldGuard lookup, so it is resolved here on the main thread
+        final List<ProtectedRegion> allowed = new ArrayList<>();
+        final List<ProtectedRegion> denied = new ArrayList<>();
+        for (ProtectedRegion region : regions) {
+            (plugin.getWorldGuardUtil().isMemberOrOwner(player, region) ? allowed : denied).add(region);
+        }
+        final Settings current = settings;
+        final Color[] colors = {current.allowed(), current.denied()};
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            Vector min = new Vector(region.getMinimumPoint().getX(), region.getMinimumPoint().getY(), region.getMinimumPoint().getZ());
-            Vector max = new Vector(region.getMaximumPoint().getX(), region.getMaximumPoint().getY(), region.getMaximumPoint().getZ());
+        RegionRenderer renderer = rendererFor(player, Visualization.REGION);
+        if (renderer != null) {
+            // Denied boxes go last, so their colour wins on shared borders as with particles
+            List<RegionRenderer.Box> boxes = new ArrayList<>(regions.size());
+            for (ProtectedRegion region : allowed) boxes.add(toBox(region, colors[ALLOWED]));
+            for (ProtectedRegion region : denied) boxes.add(toBox(region, colors[DENIED]));
+            renderer.show(player, REGION_SHAPE, boxes);
+            state.regionRenderer = renderer;
+            state.regionExpiry = expiries.schedule(state, current.durationTicks());
+            return;
+        }
+
+        final double density = current.density();
+        final String worldName = player.getWorld().getName();
+        final int streamingThreshold = current.streamingThreshold();
 
-            List<Location> points = GeometryUtil.getCuboidWireframe(player.getWorld(), min, max, density);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long started = System.nanoTime();
+            ParticlePayload[] payloads = new ParticlePayload[SESSION_COLORS];
+            if (regions.size() == 1) {
+                int slot = allowed.isEmpty() ? DENIED : ALLOWED;
+                ProtectedRegion region = slot == ALLOWED ? allowed.get(0) : denied.get(0);
+                payloads[slot] = new ParticlePayload(getRegionWireframe(worldName, region, density, streamingThreshold),
+                        colors[slot], PARTICLE_SIZE_REGION);
+            } else {
+                // One pass over every edge; cost follows the unique edges, not the region count
+                EdgeMerger merger = new EdgeMerger(SESSION_COLORS);
+                for (ProtectedRegion region : allowed) addRegion(merger, region, ALLOWED);
+                for (ProtectedRegion region : denied) addRegion(merger, region, DENIED);
+                Wireframe[] merged = merger.build(density, streamingThreshold);
+                for (int slot = 0; slot < SESSION_COLORS; slot++) {
+                    if (merged[slot] != null) payloads[slot] = new ParticlePayload(merged[slot], colors[slot], PARTICLE_SIZE_REGION);
+                }
+            }
+            metrics.recordBuild(SESSION_COST, System.nanoTime() - started);
 
             Bukkit.getScheduler().runTask(plugin, () -> {
                 if (!player.isOnline()) return;
                 
-                if (staticRegionRequestIds.getOrDefault(player.getUniqueId(), -1L) != requestId) return;
-
-                BukkitTask task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-                    if (!player.isOnline()) return;
-                    Particle.DustOptions dustOptions = new Particle.DustOptions(color, PARTICLE_SIZE_REGION);
-                    for (Location loc : points) {
-                        player.spawnParticle(Particle.DUST, loc, 1, dustOptions);
-                    }
-                }, 0L, 10L); 
-
-                activeTasks.put(player.getUniqueId(), task);
-
-                long duration = plugin.getConfig().getLong("visualizer.duration", 15) * 20L;
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    if (activeTasks.get(player.getUniqueId()) == task) {
-                        task.cancel();
-                        activeTasks.remove(player.getUniqueId());
-                    }
-                }, duration);
+                if (state.regionRequest != requestId) return;
+
+                state.regions = payloads;
+                state.regionExpiry = expiries.schedule(state, current.durationTicks());
+                // Show it right away instead of waiting for the player's phase
+                for (int slot = 0; slot < payloads.length; slot++) {
+                    if (payloads[slot] != null) scheduler.submit(state.regionKeys[slot], player, payloads[slot]);
+                }
             });
         });
     }
 
+    // Everyone looking at the same region shares one wireframe
+    private Wireframe getRegionWireframe(String worldName, ProtectedRegion region, double density, int streamingThreshold) {
+        BlockVector3 lo = region.getMinimumPoint();
+        BlockVector3 hi = region.getMaximumPoint();
+        GeometryCache.Key key = new GeometryCache.Key(worldName, region.getId().toLowerCase(),
+                lo.getX(), lo.getY(), lo.getZ(), hi.getX(), hi.getY(), hi.getZ(), density);
+        return geometryCache.get(key, () -> GeometryUtil.getCuboidWireframe(
+                new Vector(lo.getX(), lo.getY(), lo.getZ()), new Vector(hi.getX(), hi.getY(), hi.getZ()), density,
+                streamingThreshold));
+    }
+
+    private static RegionRenderer.Box toBox(ProtectedRegion region, Color color) {
+        BlockVector3 lo = region.getMinimumPoint();
+        BlockVector3 hi = region.getMaximumPoint();
+        return new RegionRenderer.Box(lo.getX(), lo.getY(), lo.getZ(), hi.getX(), hi.getY(), hi.getZ(), color);
+    }
+
+    private static void addRegion(EdgeMerger merger, ProtectedRegion region, int slot) {
+        BlockVector3 lo = region.getMinimumPoint();
+        BlockVector3 hi = region.getMaximumPoint();
+        // Denied borders win where they overlap allowed ones
+        merger.addCuboid(lo.getX(), lo.getY(), lo.getZ(), hi.getX(), hi.getY(), hi.getZ(), slot, slot);
+    }
+
+    /**
+     * Brings the selection wireframe in line with the player's WorldEdit selection. Costs a bounds
+     * check when nothing changed; otherwise only the edges that moved are rebuilt, off the main thread.
+     * Main thread only.
+     */
     public void updateSelectionVisualization(Player player) {
         if (!plugin.hasWorldEdit()) return;
 
-        if (activeSelectionTasks.containsKey(player.getUniqueId())) {
-            activeSelectionTasks.get(player.getUniqueId()).cancel();
-            activeSelectionTasks.remove(player.getUniqueId());
+        Region selection = getSelection(player);
+        if (selection == null) {
+            clearSelectionVisualization(player);
+            return;
         }
-        
-        long requestId = System.nanoTime();
-        selectionRequestIds.put(player.getUniqueId(), requestId);
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                com.sk89q.worldedit.LocalSession session = com.sk89q.worldedit.WorldEdit.getInstance().getSessionManager().get(BukkitAdapter.adapt(player));
-                if (session == null) return;
-                
-                Region selection = session.getSelection(session.getSelectionWorld());
-                if (selection == null || selection.getArea() < 2) return;
+        BlockVector3 lo = selection.getMinimumPoint();
+        BlockVector3 hi = selection.getMaximumPoint();
+        final Settings current = settings;
+        final double density = current.density();
+        final int streamingThreshold = current.streamingThreshold();
+        final Color color = current.selection();
 
-                Vector min = new Vector(selection.getMinimumPoint().getX(), selection.getMinimumPoint().getY(), selection.getMinimumPoint().getZ());
-                Vector max = new Vector(selection.getMaximumPoint().getX(), selection.getMaximumPoint().getY(), selection.getMaximumPoint().getZ());
-                
-                double density = plugin.getConfig().getDouble("visualizer.particle-density", 0.25);
-                List<Location> points = GeometryUtil.getCuboidWireframe(player.getWorld(), min, max, density);
-                Color color = getColor("selection");
-
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    if (!player.isOnline()) return;
-                    
-                    if (selectionRequestIds.getOrDefault(player.getUniqueId(), -1L) != requestId) return;
-
-                    BukkitTask task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-                        if (!player.isOnline()) {
-                            BukkitTask t = activeSelectionTasks.remove(player.getUniqueId());
-                            if(t != null) t.cancel();
-                            return;
-                        }
-                        
-                        if (player.getInventory().getItemInMainHand().getType() != Material.WOODEN_AXE) {
-                            return;
-                        }
-
-                        Particle.DustOptions dustOptions = new Particle.DustOptions(color, PARTICLE_SIZE_SELECTION);
-                        for (Location loc : points) {
-                            player.spawnParticle(Particle.DUST, loc, 1, dustOptions);
-                        }
-                    }, 0L, 10L); 
-
-                    activeSelectionTasks.put(player.getUniqueId(), task);
-                });
-                
-            } catch (IncompleteRegionException ignored) {
+        ViewerState state = viewers.computeIfAbsent(player.getUniqueId(), id -> new ViewerState(player));
+        long requestId = requestCounter.incrementAndGet();
+        state.selectionRequest = requestId;
+
+        RegionRenderer renderer = rendererFor(player, Visualization.SELECTION);
+        if (state.selectionRenderer != null && state.selectionRenderer != renderer) {
+            state.selectionRenderer.hide(player, SELECTION_SHAPE);
+            state.selectionRenderer = null;
+        }
+        if (renderer == cuiRenderer) {
+            // WorldEdit already sends the selection to CUI clients and keeps it current
+            clearSelectionParticles(state);
+            return;
+        }
+        if (renderer != null) {
+            clearSelectionParticles(state);
+            state.selectionRenderer = renderer;
+            state.selectionBox = new RegionRenderer.Box(lo.getX(), lo.getY(), lo.getZ(), hi.getX(), hi.getY(), hi.getZ(), color);
+            if (wandHolders.contains(player.getUniqueId())) renderer.show(player, SELECTION_SHAPE, List.of(state.selectionBox));
+            return;
+        }
+
+        // Superseding any build in flight is enough when the shown geometry is already right
+        final SelectionGeometry previous = state.selectionGeometry;
+        final ParticlePayload[] previousPayloads = state.selection;
+        if (previous != null && previous.matches(lo.getX(), lo.getY(), lo.getZ(), hi.getX(), hi.getY(), hi.getZ(), density, streamingThreshold)
+                && previousPayloads.length == SelectionGeometry.PARTS && color.equals(getPayloadColor(previousPayloads))) {
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long started = System.nanoTime();
+            SelectionGeometry geometry = SelectionGeometry.build(previous, lo.getX(), lo.getY(), lo.getZ(),
+                    hi.getX(), hi.getY(), hi.getZ(), density, streamingThreshold);
+            ParticlePayload[] payloads = new ParticlePayload[SelectionGeometry.PARTS];
+            for (int part = 0; part < payloads.length; part++) {
+                Wireframe wireframe = geometry.getPart(part);
+                if (wireframe.isEmpty()) continue;
+                ParticlePayload old = previousPayloads.length == payloads.length ? previousPayloads[part] : null;
+                // Unchanged edges keep their payload, and with it their encoded packets
+                payloads[part] = old != null && old.getGeometry() == wireframe && old.getColor().equals(color)
+                        ? old : new ParticlePayload(wireframe, color, PARTICLE_SIZE_SELECTION);
             }
+            metrics.recordBuild(SELECTION_COST, System.nanoTime() - started);
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (!player.isOnline()) return;
+                if (state.selectionRequest != requestId) return;
+
+                ParticlePayload[] shown = state.selection;
+                for (int part = 0; part < shown.length; part++) {
+                    if (shown[part] != payloads[part]) scheduler.cancel(state.selectionKeys[part]);
+                }
+                state.selectionGeometry = geometry;
+                state.selection = payloads;
+            });
         });
     }
 
-    public void clearPlayerParticles(Player player) {
-        if (activeTasks.containsKey(player.getUniqueId())) {
-            activeTasks.get(player.getUniqueId()).cancel();
-            activeTasks.remove(player.getUniqueId());
+    /**
+     * Stops drawing the player's selection.
+     */
+    public void clearSelectionVisualization(Player player) {
+        ViewerState state = viewers.get(player.getUniqueId());
+        if (state == null) return;
+        clearSelectionParticles(state);
+        if (state.selectionRenderer != null) {
+            state.selectionRenderer.hide(player, SELECTION_SHAPE);
+            state.selectionRenderer = null;
+            state.selectionBox = null;
+        }
+        state.selectionRequest = 0;
+        if (state.isIdle()) viewers.remove(state.player.getUniqueId(), state);
+    }
+
+    private void clearSelectionParticles(ViewerState state) {
+        for (ViewerKey key : state.selectionKeys) scheduler.cancel(key);
+        state.selection = NO_PAYLOADS;
+        state.selectionGeometry = null;
+    }
+
+    /**
+     * Records whether the player holds the WorldEdit wand; the selection is only drawn while they do.
+     */
+    public void setHoldingWand(Player player, boolean holding) {
+        boolean changed = holding ? wandHolders.add(player.getUniqueId()) : wandHolders.remove(player.getUniqueId());
+        if (!changed) return;
+
+        // Particles check the wand every frame; a retained selection has to be shown or hidden
+        ViewerState state = viewers.get(player.getUniqueId());
+        if (state == null || state.selectionRenderer == null) return;
+        if (holding) {
+            state.selectionRenderer.show(player, SELECTION_SHAPE, List.of(state.selectionBox));
+        } else {
+            state.selectionRenderer.hide(player, SELECTION_SHAPE);
+        }
+    }
+
+    // The player's selection if it is complete and in the world they are in; main thread only
+    private Region getSelection(Player player) {
+        LocalSession session = WorldEdit.getInstance().getSessionManager().getIfPresent(BukkitAdapter.adapt(player));
+        if (session == null) return null;
+        com.sk89q.worldedit.world.World world = session.getSelectionWorld();
+        if (world == null || !world.getName().equals(player.getWorld().getName())) return null;
+        try {
+            Region selection = session.getSelection(world);
+            return selection.getVolume() < 2 ? null : selection;
+        } catch (IncompleteRegionException e) {
+            return null;
+        }
+    }
+
+    private static Color getPayloadColor(ParticlePayload[] payloads) {
+        for (ParticlePayload payload : payloads) {
+            if (payload != null) return payload.getColor();
         }
-        staticRegionRequestIds.remove(player.getUniqueId());
+        return null;
+    }
+
+    public void clearPlayerParticles(Player player) {
+        ViewerState state = viewers.get(player.getUniqueId());
+        if (state == null) return;
+        if (state.regionExpiry != null) state.regionExpiry.cancel();
+        expireRegion(state);
     }
     
     public void clearAllParticlesForPlayer(Player player) {
-        clearPlayerParticles(player);
-        if (activeSelectionTasks.containsKey(player.getUniqueId())) {
-            activeSelectionTasks.get(player.getUniqueId()).cancel();
-            activeSelectionTasks.remove(player.getUniqueId());
-        }
-        selectionRequestIds.remove(player.getUniqueId());
+        ViewerState state = viewers.remove(player.getUniqueId());
+        if (state == null) return;
+        if (state.regionExpiry != null) state.regionExpiry.cancel();
+        state.regions = NO_PAYLOADS;
+        state.selection = NO_PAYLOADS;
+        state.selectionGeometry = null;
+        state.regionRequest = 0;
+        state.selectionRequest = 0;
+        for (ViewerKey key : state.regionKeys) scheduler.cancel(key);
+        for (ViewerKey key : state.selectionKeys) scheduler.cancel(key);
+        if (state.regionRenderer != null) state.regionRenderer.hide(player, REGION_SHAPE);
+        if (state.selectionRenderer != null) state.selectionRenderer.hide(player, SELECTION_SHAPE);
+        state.regionRenderer = null;
+        state.selectionRenderer = null;
+        state.selectionBox = null;
     }
 
     public void stopAll() {
-        if (globalPermanentTask != null) globalPermanentTask.cancel();
-        activeTasks.values().forEach(BukkitTask::cancel);
-        activeSelectionTasks.values().forEach(BukkitTask::cancel);
-        activeTasks.clear();
-        activeSelectionTasks.clear();
-        staticRegionRequestIds.clear();
-        selectionRequestIds.clear();
+        if (renderTask != null) renderTask.cancel();
+        renderPool.shutdownNow();
+        pendingFrame = null;
+        scheduler.clear();
+        expiries.clear();
+        viewers.clear();
+        wandHolders.clear();
+        retainedPermanent.clear();
+        displayRenderer.shutdown();
+        cuiRenderer.shutdown();
+    }
+
+    /**
+     * Point count above which cuboid geometry is generated on demand instead of stored.
+     */
+    public int getStreamingThreshold() {
+        return settings.streamingThreshold();
+    }
+
+    /**
+     * Returns the culling volume for the player; with culling disabled it lets everything through.
+     */
+    private ViewCone createViewCone(Player player) {
+        Settings current = settings;
+        if (!current.culling()) {
+            return ViewCone.fromEye(player.getEyeLocation(), Double.POSITIVE_INFINITY, 180);
+        }
+        return ViewCone.fromEye(player.getEyeLocation(), current.cullingRadius(), current.viewAngle());
+    }
+
+    /**
+     * Whether culling runs on the render pool rather than the main thread.
+     */
+    public boolean isAsyncRender() {
+        return settings.asyncRender();
+    }
+
+    /**
+     * Shared cache of the wireframes built for /rv show, /rv view and /rv near.
+     */
+    public GeometryCache getGeometryCache() {
+        return geometryCache;
+    }
+
+    /**
+     * Work that did not fit into the particle budgets and waits for a later tick.
+     */
+    public int getDeferredCount() {
+        return scheduler.getDeferredCount();
+    }
+
+    /**
+     * Block display bars currently spawned by the display renderer.
+     */
+    public int getDisplayEntityCount() {
+        return displayRenderer.getEntityCount();
+    }
+
+    /**
+     * The emitter every visualization is sent through; exposes the sent particle count.
+     */
+    public CountingParticleEmitter getEmitter() {
+        return emitter;
     }
 
     private Color getColor(String key) {
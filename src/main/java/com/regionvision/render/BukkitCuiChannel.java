@@ -0,0 +1,61 @@
+package com.regionvision.render;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRegisterChannelEvent;
+import org.bukkit.event.player.PlayerUnregisterChannelEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CUI channel over Bukkit plugin messages. Clients announce the channels they listen on
+ * after joining; those announcements are tracked here, so detection is a set lookup and
+ * needs no handshake of its own.
+ */
+public class BukkitCuiChannel implements CuiChannel, Listener {
+
+    private final Plugin plugin;
+    private final Set<UUID> listening = ConcurrentHashMap.newKeySet();
+
+    public BukkitCuiChannel(Plugin plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, NAME);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        // Players who registered the channel before a reload
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (player.getListeningPluginChannels().contains(NAME)) listening.add(player.getUniqueId());
+        }
+    }
+
+    @EventHandler
+    public void onRegisterChannel(PlayerRegisterChannelEvent event) {
+        if (NAME.equals(event.getChannel())) listening.add(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onUnregisterChannel(PlayerUnregisterChannelEvent event) {
+        if (NAME.equals(event.getChannel())) listening.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        listening.remove(event.getPlayer().getUniqueId());
+    }
+
+    @Override
+    public boolean isListening(Player player) {
+        return listening.contains(player.getUniqueId());
+    }
+
+    @Override
+    public void send(Player player, String message) {
+        player.sendPluginMessage(plugin, NAME, message.getBytes(StandardCharsets.UTF_8));
+    }
+}
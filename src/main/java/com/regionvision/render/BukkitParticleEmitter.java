@@ -0,0 +1,29 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.SpanList;
+import com.regionvision.utils.Wireframe;
+import org.bukkit.Particle;
+import org.bukkit.entity.Player;
+
+/**
+ * Emitter backed by the plain Bukkit API. The API offers no access to packets or
+ * bundles, so each point still becomes one {@code spawnParticle} call, but the shared
+ * payload means no options or locations are created per viewer or per point.
+ */
+public class BukkitParticleEmitter implements ParticleEmitter {
+
+    @Override
+    public int emit(Player viewer, ParticlePayload payload, SpanList spans) {
+        Particle.DustOptions options = payload.getOptions();
+        payload.getGeometry().forEachPoint(spans, (x, y, z) -> viewer.spawnParticle(Particle.DUST, x, y, z, 1, options));
+        return spans.pointCount();
+    }
+
+    @Override
+    public int emit(Player viewer, ParticlePayload payload) {
+        Particle.DustOptions options = payload.getOptions();
+        Wireframe geometry = payload.getGeometry();
+        geometry.forEachPoint((x, y, z) -> viewer.spawnParticle(Particle.DUST, x, y, z, 1, options));
+        return geometry.size();
+    }
+}
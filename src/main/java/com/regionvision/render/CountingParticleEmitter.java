@@ -0,0 +1,41 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.SpanList;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emitter decorator that counts the particles its delegate sent.
+ */
+public class CountingParticleEmitter implements ParticleEmitter {
+
+    private final ParticleEmitter delegate;
+    private final AtomicLong particles = new AtomicLong();
+
+    public CountingParticleEmitter(ParticleEmitter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int emit(Player viewer, ParticlePayload payload, SpanList spans) {
+        int sent = delegate.emit(viewer, payload, spans);
+        particles.addAndGet(sent);
+        return sent;
+    }
+
+    @Override
+    public int emit(Player viewer, ParticlePayload payload) {
+        int sent = delegate.emit(viewer, payload);
+        particles.addAndGet(sent);
+        return sent;
+    }
+
+    public long getParticles() {
+        return particles.get();
+    }
+
+    public void reset() {
+        particles.set(0);
+    }
+}
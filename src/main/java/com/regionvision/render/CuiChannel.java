@@ -0,0 +1,19 @@
+package com.regionvision.render;
+
+import org.bukkit.entity.Player;
+
+/**
+ * The WorldEdit CUI plugin channel. Kept behind an interface so the renderer can be driven
+ * without a client, e.g. by a channel that records the messages in tests.
+ */
+public interface CuiChannel {
+
+    String NAME = "worldedit:cui";
+
+    /**
+     * Whether the player's client registered the channel, i.e. runs a CUI mod.
+     */
+    boolean isListening(Player player);
+
+    void send(Player player, String message);
+}
@@ -0,0 +1,109 @@
+package com.regionvision.render;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Color;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Draws boxes in the viewer's WorldEdit CUI mod. Every box becomes one cuboid of the CUI
+ * multi-region set, sent as two points and a colour; the client keeps drawing it until told
+ * otherwise, so an unchanged shape costs nothing and a changed one only resends the boxes
+ * that differ.
+ * <p>
+ * Multi-region messages carry a {@code +} prefix and an id of their own, so they leave the
+ * player's WorldEdit selection, which WorldEdit sends on the same channel, alone.
+ */
+public class CuiRenderer implements RegionRenderer {
+
+    // Edge and grid alpha; points are drawn in the box colour too
+    private static final int EDGE_ALPHA = 0xCC;
+    private static final int GRID_ALPHA = 0x40;
+
+    private static final class Shape {
+        World world;
+        List<Box> boxes = List.of();
+        final List<UUID> ids = new ArrayList<>();
+    }
+
+    private final CuiChannel channel;
+    private final Map<UUID, Map<Object, Shape>> shapes = new HashMap<>();
+
+    public CuiRenderer(CuiChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Whether the player runs a CUI client this renderer can draw for.
+     */
+    public boolean isSupported(Player player) {
+        return channel.isListening(player);
+    }
+
+    @Override
+    public void show(Player viewer, Object key, List<Box> boxes) {
+        Shape shape = shapes.computeIfAbsent(viewer.getUniqueId(), id -> new HashMap<>())
+                .computeIfAbsent(key, k -> new Shape());
+        World world = viewer.getWorld();
+        // CUI regions have no world, so a world change redraws everything
+        boolean sameWorld = shape.world == world;
+        if (sameWorld && shape.boxes.equals(boxes)) return;
+
+        for (int i = 0; i < boxes.size(); i++) {
+            if (i == shape.ids.size()) shape.ids.add(UUID.randomUUID());
+            if (sameWorld && i < shape.boxes.size() && shape.boxes.get(i).equals(boxes.get(i))) continue;
+            sendBox(viewer, shape.ids.get(i), boxes.get(i));
+        }
+        while (shape.ids.size() > boxes.size()) {
+            channel.send(viewer, "+s|clear|" + shape.ids.remove(shape.ids.size() - 1));
+        }
+        shape.world = world;
+        shape.boxes = List.copyOf(boxes);
+    }
+
+    @Override
+    public void hide(Player viewer, Object key) {
+        Map<Object, Shape> viewerShapes = shapes.get(viewer.getUniqueId());
+        if (viewerShapes == null) return;
+        Shape shape = viewerShapes.remove(key);
+        if (shape != null) clear(viewer, shape);
+        if (viewerShapes.isEmpty()) shapes.remove(viewer.getUniqueId());
+    }
+
+    @Override
+    public void hideAll(Player viewer) {
+        Map<Object, Shape> viewerShapes = shapes.remove(viewer.getUniqueId());
+        if (viewerShapes == null || !viewer.isOnline()) return;
+        for (Shape shape : viewerShapes.values()) clear(viewer, shape);
+    }
+
+    @Override
+    public void shutdown() {
+        // The client only forgets multi regions on disconnect, so clear them while we still can
+        for (Player player : Bukkit.getOnlinePlayers()) hideAll(player);
+        shapes.clear();
+    }
+
+    private void clear(Player viewer, Shape shape) {
+        for (UUID id : shape.ids) channel.send(viewer, "+s|clear|" + id);
+    }
+
+    private void sendBox(Player viewer, UUID id, Box box) {
+        long volume = (long) (box.maxX() - box.minX() + 1) * (box.maxY() - box.minY() + 1) * (box.maxZ() - box.minZ() + 1);
+        String edge = hex(box.color(), EDGE_ALPHA);
+        channel.send(viewer, "+s|cuboid|" + id);
+        channel.send(viewer, "+col|" + edge + "|" + hex(box.color(), GRID_ALPHA) + "|" + edge + "|" + edge);
+        channel.send(viewer, "+p|0|" + box.minX() + "|" + box.minY() + "|" + box.minZ() + "|-1");
+        channel.send(viewer, "+p|1|" + box.maxX() + "|" + box.maxY() + "|" + box.maxZ() + "|" + volume);
+    }
+
+    private static String hex(Color color, int alpha) {
+        return String.format("#%06X%02X", color.asRGB(), alpha);
+    }
+}
@@ -0,0 +1,272 @@
+package com.regionvision.render;
+
+import com.regionvision.RegionVisionPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Draws boxes as thin glowing block display bars, spawned once per viewer and only touched
+ * again when the shape changes. The bars are hidden from everyone but their viewer and are
+ * never saved with the world.
+ * <p>
+ * Edges are cut into bars at fixed world-aligned intervals, so a bar's entity stays near the
+ * part of the edge it draws and borders shared by two boxes produce the same bars, which are
+ * then spawned once. Only bars in loaded chunks within the viewer's view distance are spawned;
+ * the rest follow as the viewer moves or their chunk loads. Changing a shape, or the viewer
+ * crossing into another chunk, keeps every bar that is still wanted and only spawns and removes
+ * the difference.
+ */
+public class DisplayRenderer implements RegionRenderer {
+
+    // A bar along one axis, starting at the block corner x, y, z
+    private record Bar(int x, int y, int z, int axis, int length) {}
+
+    private static final class Spawned {
+        final BlockDisplay entity;
+        Color color;
+
+        Spawned(BlockDisplay entity, Color color) {
+            this.entity = entity;
+            this.color = color;
+        }
+    }
+
+    private static final class Shape {
+        final World world;
+        final List<Box> boxes;
+        final Map<Bar, Spawned> bars;
+        // Where the viewer was when the bars were picked
+        final int chunkX;
+        final int chunkZ;
+        final int viewDistance;
+        // Bars in range whose chunk was not loaded yet
+        final List<Bar> waiting;
+
+        Shape(World world, List<Box> boxes, Map<Bar, Spawned> bars, int chunkX, int chunkZ, int viewDistance, List<Bar> waiting) {
+            this.world = world;
+            this.boxes = boxes;
+            this.bars = bars;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.viewDistance = viewDistance;
+            this.waiting = waiting;
+        }
+
+        /**
+         * Whether the spawned bars are still what the viewer should see from the same spot.
+         * Unloading a chunk discards its non-persistent bars; that is expected and they come back
+         * once the chunk is loaded again, as do bars waiting for their chunk.
+         */
+        boolean isCurrent() {
+            for (Map.Entry<Bar, Spawned> entry : bars.entrySet()) {
+                if (!entry.getValue().entity.isValid() && isLoaded(world, entry.getKey())) return false;
+            }
+            for (Bar bar : waiting) {
+                if (isLoaded(world, bar)) return false;
+            }
+            return true;
+        }
+    }
+
+    private final RegionVisionPlugin plugin;
+    private final Map<UUID, Map<Object, Shape>> shapes = new HashMap<>();
+
+    // How bars look, set from the config on enable and on /rv reload
+    private BlockData block;
+    private float thickness;
+    private int maxBarLength;
+
+    public DisplayRenderer(RegionVisionPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Sets the block, thickness and longest run of the bars. Bars already spawned keep their
+     * look until their shape changes. Main thread only.
+     */
+    public void setStyle(BlockData block, float thickness, int maxBarLength) {
+        this.block = block;
+        this.thickness = thickness;
+        this.maxBarLength = Math.max(1, maxBarLength);
+    }
+
+    @Override
+    public void show(Player viewer, Object key, List<Box> boxes) {
+        Map<Object, Shape> viewerShapes = shapes.computeIfAbsent(viewer.getUniqueId(), id -> new HashMap<>());
+        World world = viewer.getWorld();
+        Location location = viewer.getLocation();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        int viewDistance = viewer.getViewDistance();
+        Shape shape = viewerShapes.get(key);
+        if (shape != null && shape.world == world && shape.boxes.equals(boxes) && shape.chunkX == chunkX
+                && shape.chunkZ == chunkZ && shape.viewDistance == viewDistance && shape.isCurrent()) return;
+
+        Map<Bar, Spawned> bars = new HashMap<>();
+        if (shape != null) {
+            if (shape.world == world) {
+                bars = shape.bars;
+            } else {
+                removeAll(shape);
+            }
+        }
+
+        Map<Bar, Color> wanted = toBars(boxes, maxBarLength);
+        List<Bar> waiting = new ArrayList<>();
+        wanted.keySet().removeIf(bar -> {
+            if (Math.abs((bar.x() >> 4) - chunkX) > viewDistance || Math.abs((bar.z() >> 4) - chunkZ) > viewDistance) return true;
+            if (isLoaded(world, bar)) return false;
+            waiting.add(bar);
+            return true;
+        });
+        Iterator<Map.Entry<Bar, Spawned>> it = bars.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Bar, Spawned> entry = it.next();
+            if (wanted.containsKey(entry.getKey()) && entry.getValue().entity.isValid()) continue;
+            entry.getValue().entity.remove();
+            it.remove();
+        }
+
+        for (Map.Entry<Bar, Color> entry : wanted.entrySet()) {
+            Spawned spawned = bars.get(entry.getKey());
+            if (spawned == null) {
+                bars.put(entry.getKey(), new Spawned(spawn(viewer, world, entry.getKey(), entry.getValue()), entry.getValue()));
+            } else if (!spawned.color.equals(entry.getValue())) {
+                spawned.entity.setGlowColorOverride(entry.getValue());
+                spawned.color = entry.getValue();
+            }
+        }
+        viewerShapes.put(key, new Shape(world, List.copyOf(boxes), bars, chunkX, chunkZ, viewDistance, waiting));
+    }
+
+    /**
+     * Brings every shape in line with where its viewer is now: bars that came into range or whose
+     * chunk loaded are spawned, bars out of range removed. Shapes whose viewer stayed in the same
+     * chunk only cost a check. Main thread only.
+     */
+    public void refresh() {
+        for (Map.Entry<UUID, Map<Object, Shape>> entry : new ArrayList<>(shapes.entrySet())) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            if (viewer == null) continue;
+            for (Map.Entry<Object, Shape> shape : new ArrayList<>(entry.getValue().entrySet())) {
+                show(viewer, shape.getKey(), shape.getValue().boxes);
+            }
+        }
+    }
+
+    @Override
+    public void hide(Player viewer, Object key) {
+        Map<Object, Shape> viewerShapes = shapes.get(viewer.getUniqueId());
+        if (viewerShapes == null) return;
+        Shape shape = viewerShapes.remove(key);
+        if (shape != null) removeAll(shape);
+        if (viewerShapes.isEmpty()) shapes.remove(viewer.getUniqueId());
+    }
+
+    @Override
+    public void hideAll(Player viewer) {
+        Map<Object, Shape> viewerShapes = shapes.remove(viewer.getUniqueId());
+        if (viewerShapes == null) return;
+        for (Shape shape : viewerShapes.values()) removeAll(shape);
+    }
+
+    @Override
+    public void shutdown() {
+        for (Map<Object, Shape> viewerShapes : shapes.values()) {
+            for (Shape shape : viewerShapes.values()) removeAll(shape);
+        }
+        shapes.clear();
+    }
+
+    /**
+     * Number of bar entities currently spawned, across all viewers.
+     */
+    public int getEntityCount() {
+        int count = 0;
+        for (Map<Object, Shape> viewerShapes : shapes.values()) {
+            for (Shape shape : viewerShapes.values()) count += shape.bars.size();
+        }
+        return count;
+    }
+
+    // Bars are spawned at their start corner, so that is the chunk holding the entity
+    private static boolean isLoaded(World world, Bar bar) {
+        return world.isChunkLoaded(bar.x() >> 4, bar.z() >> 4);
+    }
+
+    private static void removeAll(Shape shape) {
+        for (Spawned spawned : shape.bars.values()) spawned.entity.remove();
+        shape.bars.clear();
+    }
+
+    private BlockDisplay spawn(Player viewer, World world, Bar bar, Color color) {
+        // The block model spans 0..1; stretch it along the bar and centre it on the edge
+        float half = thickness / 2;
+        Vector3f translation = new Vector3f(bar.axis() == 0 ? 0 : -half, bar.axis() == 1 ? 0 : -half, bar.axis() == 2 ? 0 : -half);
+        Vector3f scale = new Vector3f(bar.axis() == 0 ? bar.length() : thickness,
+                bar.axis() == 1 ? bar.length() : thickness, bar.axis() == 2 ? bar.length() : thickness);
+
+        BlockDisplay display = world.spawn(new Location(world, bar.x(), bar.y(), bar.z()), BlockDisplay.class, entity -> {
+            entity.setVisibleByDefault(false);
+            entity.setPersistent(false);
+            entity.setBlock(block);
+            entity.setTransformation(new Transformation(translation, new Quaternionf(), scale, new Quaternionf()));
+            entity.setBrightness(new Display.Brightness(15, 15));
+            entity.setGlowing(true);
+            entity.setGlowColorOverride(color);
+        });
+        viewer.showEntity(plugin, display);
+        return display;
+    }
+
+    // The 12 edges of every box, cut at multiples of maxLength; later boxes take over shared bars
+    private static Map<Bar, Color> toBars(List<Box> boxes, int maxLength) {
+        Map<Bar, Color> bars = new LinkedHashMap<>();
+        for (Box box : boxes) {
+            int[] lo = {box.minX(), box.minY(), box.minZ()};
+            int[] hi = {box.maxX() + 1, box.maxY() + 1, box.maxZ() + 1};
+            for (int axis = 0; axis < 3; axis++) {
+                int u = (axis + 1) % 3;
+                int v = (axis + 2) % 3;
+                for (int cu : new int[]{lo[u], hi[u]}) {
+                    for (int cv : new int[]{lo[v], hi[v]}) {
+                        addEdge(bars, axis, u, v, cu, cv, lo[axis], hi[axis], maxLength, box.color());
+                    }
+                }
+            }
+        }
+        return bars;
+    }
+
+    private static void addEdge(Map<Bar, Color> bars, int axis, int u, int v, int cu, int cv,
+                                int from, int to, int maxLength, Color color) {
+        int start = from;
+        while (start < to) {
+            int end = Math.min(to, Math.floorDiv(start, maxLength) * maxLength + maxLength);
+            int[] corner = new int[3];
+            corner[axis] = start;
+            corner[u] = cu;
+            corner[v] = cv;
+            Bar bar = new Bar(corner[0], corner[1], corner[2], axis, end - start);
+            bars.put(bar, color);
+            start = end;
+        }
+    }
+}
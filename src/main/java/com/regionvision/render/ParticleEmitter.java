@@ -0,0 +1,41 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.SpanList;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+
+/**
+ * Sends particle payloads to viewers. Implementations decide how points are turned
+ * into packets; callers only hand over the shared payload and, when culling is on,
+ * the visible index ranges for that viewer.
+ */
+public interface ParticleEmitter {
+
+    /**
+     * Sends the given ranges of the payload to one viewer.
+     *
+     * @return the number of particles sent
+     */
+    int emit(Player viewer, ParticlePayload payload, SpanList spans);
+
+    /**
+     * Sends the whole payload to one viewer.
+     *
+     * @return the number of particles sent
+     */
+    int emit(Player viewer, ParticlePayload payload);
+
+    /**
+     * Fans the whole payload out to every viewer, sharing it between them.
+     *
+     * @return the number of particles sent
+     */
+    default int emit(Collection<? extends Player> viewers, ParticlePayload payload) {
+        int sent = 0;
+        for (Player viewer : viewers) {
+            sent += emit(viewer, payload);
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,39 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.Wireframe;
+import org.bukkit.Color;
+import org.bukkit.Particle;
+
+/**
+ * Everything needed to draw one visualization: the packed geometry plus the dust options.
+ * Built once per region (and again only when its geometry or colour changes) and shared
+ * by every viewer, so a render pass allocates nothing per region.
+ */
+public final class ParticlePayload {
+
+    private final Wireframe geometry;
+    private final Color color;
+    private final Particle.DustOptions options;
+
+    public ParticlePayload(Wireframe geometry, Color color, float size) {
+        this.geometry = geometry;
+        this.color = color;
+        this.options = new Particle.DustOptions(color, size);
+    }
+
+    public Wireframe getGeometry() {
+        return geometry;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public Particle.DustOptions getOptions() {
+        return options;
+    }
+
+    public int size() {
+        return geometry.size();
+    }
+}
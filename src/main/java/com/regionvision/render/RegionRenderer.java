@@ -0,0 +1,36 @@
+package com.regionvision.render;
+
+import org.bukkit.Color;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * A renderer the viewer's client keeps drawing on its own: a shape is handed over once and stays
+ * visible until it is replaced or hidden, so unlike particles nothing is re-sent every render period.
+ * Showing the same shape again is cheap and leaves the client untouched.
+ * <p>
+ * Shapes are identified per viewer by a key chosen by the caller. Main thread only.
+ */
+public interface RegionRenderer {
+
+    /**
+     * A block cuboid, inclusive bounds, drawn in one colour.
+     */
+    record Box(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Color color) {}
+
+    /**
+     * Shows the boxes under the key, replacing whatever the key showed before.
+     * Where boxes share a border, the later one's colour wins.
+     */
+    void show(Player viewer, Object key, List<Box> boxes);
+
+    void hide(Player viewer, Object key);
+
+    /**
+     * Hides every shape of the viewer; also used once they went offline.
+     */
+    void hideAll(Player viewer);
+
+    void shutdown();
+}
@@ -0,0 +1,176 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.LevelOfDetail;
+import com.regionvision.utils.SpanList;
+import com.regionvision.utils.ViewCone;
+import com.regionvision.utils.Wireframe;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Spreads particle sending over ticks. Work submitted during a tick is sent on {@link #flush()}
+ * within a global and a per-player particle budget; whatever does not fit is deferred and
+ * served first on the next tick, so nothing starves and tick time stays flat.
+ * <p>
+ * Work can arrive already culled: spans prepared off the main thread are sent as they are,
+ * so the main thread only pays for the send itself.
+ * <p>
+ * Main thread only.
+ */
+public class RenderScheduler {
+
+    /**
+     * Told about every send, e.g. to attribute particle cost.
+     */
+    @FunctionalInterface
+    public interface SendObserver {
+        void onSend(Object key, Player viewer, int particles);
+    }
+
+    // Spans are null for work that still has to be culled here
+    private record RenderItem(Object key, Player viewer, ParticlePayload payload, SpanList spans) {}
+
+    private final ParticleEmitter emitter;
+    private final Function<Player, ViewCone> coneFactory;
+    private final SpanList spans = new SpanList();
+
+    private final List<RenderItem> pending = new ArrayList<>();
+    private final ArrayDeque<RenderItem> deferred = new ArrayDeque<>();
+    private final Set<Object> queuedKeys = new HashSet<>();
+    private final Map<Player, ViewCone> cones = new HashMap<>();
+    private final Map<Player, Integer> playerUsage = new HashMap<>();
+
+    private int tickBudget = Integer.MAX_VALUE;
+    private int playerBudget = Integer.MAX_VALUE;
+    private LevelOfDetail levelOfDetail = LevelOfDetail.NONE;
+    private SendObserver observer;
+
+    public RenderScheduler(ParticleEmitter emitter, Function<Player, ViewCone> coneFactory) {
+        this.emitter = emitter;
+        this.coneFactory = coneFactory;
+    }
+
+    /**
+     * Sets the particle budgets; values of 0 or less mean unlimited.
+     */
+    public void setBudgets(int perTick, int perPlayer) {
+        this.tickBudget = perTick > 0 ? perTick : Integer.MAX_VALUE;
+        this.playerBudget = perPlayer > 0 ? perPlayer : Integer.MAX_VALUE;
+    }
+
+    public void setLevelOfDetail(LevelOfDetail levelOfDetail) {
+        this.levelOfDetail = levelOfDetail;
+    }
+
+    public void setObserver(SendObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Phase in {@code [0, period)} at which the work identified by {@code key} is due,
+     * so equal periods don't all land on the same tick.
+     */
+    public static int phaseOf(Object key, int period) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h * 0x9E3779B9, period);
+    }
+
+    /**
+     * Queues a payload for the viewer. The key identifies the work; a key that is still waiting
+     * from an earlier tick is not queued twice.
+     */
+    public void submit(Object key, Player viewer, ParticlePayload payload) {
+        submit(key, viewer, payload, null);
+    }
+
+    /**
+     * Queues a payload whose visible spans were already computed, e.g. by a render worker.
+     */
+    public void submit(Object key, Player viewer, ParticlePayload payload, SpanList prepared) {
+        if (!queuedKeys.add(key)) return;
+        pending.add(new RenderItem(key, viewer, payload, prepared));
+    }
+
+    /**
+     * Drops queued work for the key, e.g. when a visualization is cleared.
+     */
+    public void cancel(Object key) {
+        if (!queuedKeys.remove(key)) return;
+        pending.removeIf(item -> item.key().equals(key));
+        deferred.removeIf(item -> item.key().equals(key));
+    }
+
+    /**
+     * Sends deferred work first, then this tick's work, until the budgets run out.
+     */
+    public void flush() {
+        int used = 0;
+        playerUsage.clear();
+        cones.clear();
+
+        int carried = deferred.size();
+        for (int i = 0; i < carried; i++) {
+            used = send(deferred.pollFirst(), used);
+        }
+        for (RenderItem item : pending) {
+            used = send(item, used);
+        }
+        pending.clear();
+    }
+
+    private int send(RenderItem item, int used) {
+        Player viewer = item.viewer();
+        if (!viewer.isOnline()) {
+            queuedKeys.remove(item.key());
+            return used;
+        }
+
+        SpanList visible = item.spans();
+        if (visible == null) {
+            ViewCone cone = cones.computeIfAbsent(viewer, coneFactory);
+            Wireframe geometry = item.payload().getGeometry();
+            int level = levelOfDetail.select(geometry, cone.getEyeX(), cone.getEyeY(), cone.getEyeZ());
+            cone.clip(geometry, level, spans);
+            visible = spans;
+        }
+        int cost = visible.pointCount();
+
+        // Always let the first item through, so oversized payloads still make progress
+        int playerUsed = playerUsage.getOrDefault(viewer, 0);
+        boolean fitsTick = used == 0 || used + cost <= tickBudget;
+        boolean fitsPlayer = playerUsed == 0 || playerUsed + cost <= playerBudget;
+        if (!fitsTick || !fitsPlayer) {
+            deferred.addLast(item);
+            return used;
+        }
+
+        queuedKeys.remove(item.key());
+        if (cost == 0) return used;
+
+        int sent = emitter.emit(viewer, item.payload(), visible);
+        if (observer != null) observer.onSend(item.key(), viewer, sent);
+        playerUsage.put(viewer, playerUsed + cost);
+        return used + cost;
+    }
+
+    public int getDeferredCount() {
+        return deferred.size();
+    }
+
+    public void clear() {
+        pending.clear();
+        deferred.clear();
+        queuedKeys.clear();
+        cones.clear();
+        playerUsage.clear();
+    }
+}
@@ -0,0 +1,219 @@
+package com.regionvision.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary storage: a snapshot of every region plus an append-only journal of changes.
+ * <p>
+ * A change only appends one small record to the journal. Loading reads the snapshot and
+ * replays the journal on top. Once the journal outgrows the snapshot it is compacted into a
+ * new snapshot, written to a temp file and moved into place, after which the journal starts over.
+ * A journal cut short by a crash is read up to its last complete record.
+ */
+public class BinaryRegionStorage implements RegionStorage {
+
+    private static final int SNAPSHOT_MAGIC = 0x52565331; // "RVS1"
+    private static final int JOURNAL_MAGIC = 0x52564A31;  // "RVJ1"
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final int compactThreshold;
+    private final Map<String, StoredRegion> regions = new LinkedHashMap<>();
+
+    private DataOutputStream journal;
+    private int journalEntries;
+
+    /**
+     * @param compactThreshold journal records that may pile up before compacting; compaction also
+     *                         waits until the journal is at least as large as the snapshot
+     */
+    public BinaryRegionStorage(File snapshotFile, File journalFile, int compactThreshold) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.compactThreshold = Math.max(1, compactThreshold);
+    }
+
+    /** Whether anything was ever written, i.e. whether an older format still needs migrating. */
+    public boolean exists() {
+        return snapshotFile.exists() || journalFile.exists();
+    }
+
+    @Override
+    public Collection<StoredRegion> load() throws IOException {
+        closeJournal();
+        regions.clear();
+        journalEntries = 0;
+
+        if (snapshotFile.exists()) {
+            try (DataInputStream in = open(snapshotFile)) {
+                if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a region snapshot: " + snapshotFile);
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    StoredRegion region = readRegion(in);
+                    regions.put(region.key(), region);
+                }
+            }
+        }
+
+        boolean truncated = false;
+        if (journalFile.exists() && journalFile.length() > 0) {
+            try (DataInputStream in = open(journalFile)) {
+                if (in.readInt() != JOURNAL_MAGIC) throw new IOException("Not a region journal: " + journalFile);
+                while (true) {
+                    int op = in.read();
+                    if (op < 0) break;
+                    if (op == OP_PUT) {
+                        StoredRegion region = readRegion(in);
+                        regions.put(region.key(), region);
+                    } else if (op == OP_REMOVE) {
+                        regions.remove(in.readUTF());
+                    } else {
+                        truncated = true;
+                        break;
+                    }
+                    journalEntries++;
+                }
+            } catch (EOFException e) {
+                // The last record was cut short; everything before it is intact
+                truncated = true;
+            }
+        }
+
+        // Start from a clean journal if the old one had a damaged tail
+        if (truncated) compact();
+        return regions.values();
+    }
+
+    @Override
+    public void write(Collection<StoredRegion> changed, Collection<String> removed) throws IOException {
+        DataOutputStream out = journal();
+        for (String key : removed) {
+            out.writeByte(OP_REMOVE);
+            out.writeUTF(key);
+            regions.remove(key);
+        }
+        for (StoredRegion region : changed) {
+            out.writeByte(OP_PUT);
+            writeRegion(out, region);
+            regions.put(region.key(), region);
+        }
+        out.flush();
+        journalEntries += removed.size() + changed.size();
+
+        if (journalEntries >= compactThreshold && journalEntries >= regions.size()) {
+            compact();
+        }
+    }
+
+    @Override
+    public void replaceAll(Collection<StoredRegion> all) throws IOException {
+        regions.clear();
+        for (StoredRegion region : all) {
+            regions.put(region.key(), region);
+        }
+        // Straight to a snapshot: a journal is never left half-written
+        compact();
+    }
+
+    /**
+     * Writes the current state as a new snapshot and empties the journal.
+     */
+    public void compact() throws IOException {
+        Path temp = snapshotFile.toPath().resolveSibling(snapshotFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(regions.size());
+            for (StoredRegion region : regions.values()) {
+                writeRegion(out, region);
+            }
+        }
+        StorageFiles.replace(temp, snapshotFile.toPath());
+
+        // A crash before this point only replays changes the snapshot already holds
+        closeJournal();
+        Files.deleteIfExists(journalFile.toPath());
+        journalEntries = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeJournal();
+    }
+
+    public int getJournalEntries() {
+        return journalEntries;
+    }
+
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    private DataOutputStream journal() throws IOException {
+        if (journal == null) {
+            boolean fresh = !journalFile.exists() || journalFile.length() == 0;
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+            if (fresh) journal.writeInt(JOURNAL_MAGIC);
+        }
+        return journal;
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } finally {
+            journal = null;
+        }
+    }
+
+    private static DataInputStream open(File file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
+
+    private static void writeRegion(DataOutputStream out, StoredRegion region) throws IOException {
+        out.writeUTF(region.regionId());
+        out.writeUTF(region.worldName());
+        out.writeByte(region.red());
+        out.writeByte(region.green());
+        out.writeByte(region.blue());
+        out.writeDouble(region.density());
+        out.writeInt(region.viewDistance());
+        out.writeUTF(region.notificationType() != null ? region.notificationType() : "NONE");
+        out.writeUTF(region.notificationMessage() != null ? region.notificationMessage() : "");
+        out.writeBoolean(region.showParticles());
+    }
+
+    private static StoredRegion readRegion(DataInputStream in) throws IOException {
+        return new StoredRegion(
+                in.readUTF(),
+                in.readUTF(),
+                in.readUnsignedByte(),
+                in.readUnsignedByte(),
+                in.readUnsignedByte(),
+                in.readDouble(),
+                in.readInt(),
+                in.readUTF(),
+                in.readUTF(),
+                in.readBoolean()
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.regionvision.storage;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Persistence backend for permanent region settings.
+ * <p>
+ * Implementations are driven from a single writer thread (plus {@link #load()} at startup),
+ * so they need no locking of their own.
+ */
+public interface RegionStorage {
+
+    /**
+     * Reads every stored region.
+     */
+    Collection<StoredRegion> load() throws IOException;
+
+    /**
+     * Persists a batch of changes: regions to insert or replace and world-qualified keys to delete.
+     */
+    void write(Collection<StoredRegion> changed, Collection<String> removed) throws IOException;
+
+    /**
+     * Replaces everything stored with the given regions. The new contents are written to a temp
+     * file and moved into place, so a crash leaves either the old or the new contents.
+     */
+    void replaceAll(Collection<StoredRegion> regions) throws IOException;
+
+    /**
+     * Flushes anything buffered and releases open files.
+     */
+    void close() throws IOException;
+}
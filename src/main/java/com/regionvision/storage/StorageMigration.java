@@ -0,0 +1,57 @@
+package com.regionvision.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Moves permanent regions between storage formats when {@code storage.type} changes.
+ * <p>
+ * The target is written in full to a temp file and moved into place before the source files
+ * are renamed to {@code *.migrated}. An interrupted migration therefore leaves no target behind
+ * and the source untouched, and is simply run again on the next start.
+ */
+public final class StorageMigration {
+
+    private static final String BACKUP_SUFFIX = ".migrated";
+
+    private StorageMigration() {
+    }
+
+    /**
+     * Copies the YAML file into the binary storage and keeps it as a backup.
+     *
+     * @return the number of regions migrated
+     */
+    public static int toBinary(YamlRegionStorage yaml, BinaryRegionStorage binary) throws IOException {
+        Collection<StoredRegion> regions = new ArrayList<>(yaml.load());
+        binary.replaceAll(regions);
+        binary.close();
+        retire(yaml.getFile());
+        return regions.size();
+    }
+
+    /**
+     * Copies the binary snapshot and journal into the YAML file and keeps them as backups, so
+     * switching back to binary later migrates the YAML file again instead of reading stale data.
+     *
+     * @return the number of regions migrated
+     */
+    public static int toYaml(BinaryRegionStorage binary, YamlRegionStorage yaml) throws IOException {
+        Collection<StoredRegion> regions = new ArrayList<>(binary.load());
+        yaml.replaceAll(regions);
+        binary.close();
+        retire(binary.getJournalFile());
+        retire(binary.getSnapshotFile());
+        return regions.size();
+    }
+
+    private static void retire(File file) throws IOException {
+        if (!file.exists()) return;
+        Files.move(file.toPath(), file.toPath().resolveSibling(file.getName() + BACKUP_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+}
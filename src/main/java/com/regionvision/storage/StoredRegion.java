@@ -0,0 +1,20 @@
+package com.regionvision.storage;
+
+/**
+ * Immutable copy of the persisted settings of a permanent region, safe to hand to the writer thread.
+ */
+public record StoredRegion(String regionId, String worldName, int red, int green, int blue,
+                           double density, int viewDistance,
+                           String notificationType, String notificationMessage, boolean showParticles) {
+
+    /**
+     * World-qualified key, so equal region ids in different worlds don't collide.
+     */
+    public static String key(String worldName, String regionId) {
+        return worldName + ":" + regionId.toLowerCase();
+    }
+
+    public String key() {
+        return key(worldName, regionId);
+    }
+}
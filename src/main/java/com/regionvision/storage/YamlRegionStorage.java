@@ -0,0 +1,110 @@
+package com.regionvision.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Human-editable storage in {@code permanent_regions.yml}. Every write rewrites the whole file,
+ * so prefer {@link BinaryRegionStorage} for large servers.
+ * <p>
+ * Sections are keyed by {@code world:region}, with dots escaped so a world like {@code my.world}
+ * doesn't split the key into nested sections. Every section also carries its world and region id,
+ * which are what is read back; files keyed by the bare region id, or by an unescaped dotted key,
+ * are still read.
+ */
+public class YamlRegionStorage implements RegionStorage {
+
+    private final File file;
+    private final Map<String, StoredRegion> regions = new LinkedHashMap<>();
+
+    public YamlRegionStorage(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public Collection<StoredRegion> load() {
+        regions.clear();
+        if (!file.exists()) return regions.values();
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        // Deep, so regions nested under an unescaped dotted world name are found too
+        for (String key : config.getKeys(true)) {
+            ConfigurationSection section = config.getConfigurationSection(key);
+            if (section == null || !section.isString("world")) continue;
+
+            String world = section.getString("world");
+            StoredRegion region = new StoredRegion(
+                    section.getString("region", key),
+                    world,
+                    section.getInt("color.r", 255),
+                    section.getInt("color.g", 0),
+                    section.getInt("color.b", 0),
+                    section.getDouble("density", 0.5),
+                    section.getInt("view-distance", 50),
+                    section.getString("notification-type", "NONE"),
+                    section.getString("notification-message", ""),
+                    section.getBoolean("show-particles", true) // Default to showing particles
+            );
+            regions.put(region.key(), region);
+        }
+        return regions.values();
+    }
+
+    @Override
+    public void write(Collection<StoredRegion> changed, Collection<String> removed) throws IOException {
+        for (String key : removed) {
+            regions.remove(key);
+        }
+        for (StoredRegion region : changed) {
+            regions.put(region.key(), region);
+        }
+
+        YamlConfiguration out = new YamlConfiguration();
+        for (StoredRegion s : regions.values()) {
+            ConfigurationSection section = out.createSection(escape(s.key()));
+            section.set("region", s.regionId());
+            section.set("world", s.worldName());
+            section.set("color.r", s.red());
+            section.set("color.g", s.green());
+            section.set("color.b", s.blue());
+            section.set("density", s.density());
+            section.set("view-distance", s.viewDistance());
+            section.set("notification-type", s.notificationType());
+            section.set("notification-message", s.notificationMessage());
+            section.set("show-particles", s.showParticles());
+        }
+
+        Path temp = file.toPath().resolveSibling(file.getName() + ".tmp");
+        Files.writeString(temp, out.saveToString(), StandardCharsets.UTF_8);
+        StorageFiles.replace(temp, file.toPath());
+    }
+
+    @Override
+    public void replaceAll(Collection<StoredRegion> all) throws IOException {
+        regions.clear();
+        write(all, List.of());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    // '.' is the path separator; '%' is escaped first so distinct keys stay distinct
+    private static String escape(String key) {
+        return key.replace("%", "%25").replace(".", "%2E");
+    }
+}
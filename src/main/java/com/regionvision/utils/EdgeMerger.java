@@ -0,0 +1,277 @@
+package com.regionvision.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges the edges of many cuboids into unique segments, so a border shared by two
+ * regions is drawn once instead of once per region.
+ * <p>
+ * Every cuboid edge lies on an axis-aligned line. Edges on the same line are swept together:
+ * overlapping stretches collapse into one, and where edges of different groups (e.g. colours)
+ * overlap, the one with the highest priority keeps the stretch. The result is one wireframe per
+ * group whose size depends on the number of unique segments, not on the number of cuboids.
+ * <p>
+ * A point where segments of different groups meet, such as the split of a shared border, is a
+ * vertex of each of them; it is only kept by the group whose highest-ranked edge passes through it,
+ * so the point is drawn once.
+ */
+public final class EdgeMerger {
+
+    // Axis-aligned line: axis 0/1/2 = X/Y/Z, a and b the two fixed coordinates in x, y, z order
+    private record Line(int axis, int a, int b) {}
+
+    private record Point(int x, int y, int z) {}
+
+    // Per line, packed intervals of {from, to, group, priority}
+    private final Map<Line, int[]> lines = new HashMap<>();
+    private final Map<Line, Integer> lineSizes = new HashMap<>();
+    private final int groups;
+
+    /**
+     * @param groups number of output groups; cuboids are added with a group below this
+     */
+    public EdgeMerger(int groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * Adds the 12 edges of a block cuboid (inclusive block bounds, so it spans up to {@code max + 1}).
+     */
+    public void addCuboid(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int group, int priority) {
+        int x2 = maxX + 1, y2 = maxY + 1, z2 = maxZ + 1;
+        for (int y : new int[]{minY, y2}) {
+            for (int z : new int[]{minZ, z2}) addEdge(0, y, z, minX, x2, group, priority);
+        }
+        for (int x : new int[]{minX, x2}) {
+            for (int z : new int[]{minZ, z2}) addEdge(1, x, z, minY, y2, group, priority);
+        }
+        for (int x : new int[]{minX, x2}) {
+            for (int y : new int[]{minY, y2}) addEdge(2, x, y, minZ, z2, group, priority);
+        }
+    }
+
+    private void addEdge(int axis, int a, int b, int from, int to, int group, int priority) {
+        Line line = new Line(axis, a, b);
+        int size = lineSizes.getOrDefault(line, 0);
+        int[] data = lines.get(line);
+        if (data == null) {
+            data = new int[4];
+        } else if (data.length < size + 4) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[size] = from;
+        data[size + 1] = to;
+        data[size + 2] = group;
+        data[size + 3] = priority;
+        lines.put(line, data);
+        lineSizes.put(line, size + 4);
+    }
+
+    /**
+     * Builds one wireframe per group, or null for a group left without segments.
+     * Groups holding more than {@code streamingThreshold} points are streamed (0 or less never streams).
+     */
+    public Wireframe[] build(double step, int streamingThreshold) {
+        List<int[]>[] segments = merge();
+        double spacing = Math.max(step, GeometryUtil.MIN_STEP);
+
+        Wireframe[] result = new Wireframe[groups];
+        for (int g = 0; g < groups; g++) {
+            if (segments[g].isEmpty()) continue;
+            result[g] = toWireframe(segments[g], g, spacing, streamingThreshold);
+        }
+        return result;
+    }
+
+    /**
+     * Number of distinct lines holding at least one edge.
+     */
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    // Unique segments per group, each as {x1, y1, z1, x2, y2, z2}
+    @SuppressWarnings("unchecked")
+    private List<int[]>[] merge() {
+        List<int[]>[] segments = new List[groups];
+        for (int g = 0; g < groups; g++) segments[g] = new ArrayList<>();
+
+        for (Map.Entry<Line, int[]> entry : lines.entrySet()) {
+            Line line = entry.getKey();
+            int[] data = entry.getValue();
+            int size = lineSizes.get(line);
+
+            if (size == 4) {
+                // Most lines belong to a single cuboid edge
+                segments[data[2]].add(segment(line, data[0], data[1]));
+                continue;
+            }
+            sweep(line, data, size, segments);
+        }
+        return segments;
+    }
+
+    // Splits the line at every interval end; each piece goes to the highest-priority interval covering it
+    private static void sweep(Line line, int[] data, int size, List<int[]>[] segments) {
+        int count = size / 4;
+        long[] events = new long[count * 2];
+        for (int i = 0; i < count; i++) {
+            // Coordinate in the high bits, then closing before opening, then the interval index
+            events[i * 2] = ((long) data[i * 4] << 32) | (1L << 31) | i;
+            events[i * 2 + 1] = ((long) data[i * 4 + 1] << 32) | i;
+        }
+        Arrays.sort(events);
+
+        // Active intervals by rank (priority, then group); the last key wins
+        TreeMap<Long, Integer> active = new TreeMap<>();
+        int openGroup = -1;
+        int openFrom = 0;
+        int position = Integer.MIN_VALUE;
+
+        for (int e = 0; e < events.length; ) {
+            int coordinate = (int) (events[e] >> 32);
+            // Close the piece up to this coordinate under the current winner
+            if (!active.isEmpty() && coordinate > position) {
+                int winner = (int) (long) active.lastKey();
+                if (winner != openGroup) {
+                    if (openGroup >= 0) segments[openGroup].add(segment(line, openFrom, position));
+                    openGroup = winner;
+                    openFrom = position;
+                }
+            } else if (active.isEmpty() && openGroup >= 0) {
+                segments[openGroup].add(segment(line, openFrom, position));
+                openGroup = -1;
+            }
+
+            // Apply every event at this coordinate
+            for (; e < events.length && (int) (events[e] >> 32) == coordinate; e++) {
+                int i = (int) (events[e] & 0x7FFFFFFFL);
+                boolean opening = (events[e] & (1L << 31)) != 0;
+                long rank = ((long) data[i * 4 + 3] << 32) | (data[i * 4 + 2] & 0xFFFFFFFFL);
+                if (opening) {
+                    active.merge(rank, 1, Integer::sum);
+                } else if (active.merge(rank, -1, Integer::sum) == 0) {
+                    active.remove(rank);
+                }
+            }
+            position = coordinate;
+        }
+        if (openGroup >= 0) segments[openGroup].add(segment(line, openFrom, position));
+    }
+
+    private static int[] segment(Line line, int from, int to) {
+        return switch (line.axis()) {
+            case 0 -> new int[]{from, line.a(), line.b(), to, line.a(), line.b()};
+            case 1 -> new int[]{line.a(), from, line.b(), line.a(), to, line.b()};
+            default -> new int[]{line.a(), line.b(), from, line.a(), line.b(), to};
+        };
+    }
+
+    private Wireframe toWireframe(List<int[]> segments, int group, double step, int streamingThreshold) {
+        // Segments meeting at a corner share its vertex
+        Map<Point, Integer> vertices = new HashMap<>();
+        List<double[]> order = new ArrayList<>();
+        int[] from = new int[segments.size()];
+        int[] to = new int[segments.size()];
+        int edges = 0;
+        for (int[] seg : segments) {
+            boolean keepFrom = ownsVertex(seg[0], seg[1], seg[2], group);
+            boolean keepTo = ownsVertex(seg[3], seg[4], seg[5], group);
+            if (keepFrom && keepTo) {
+                from[edges] = vertex(vertices, order, new Point(seg[0], seg[1], seg[2]));
+                to[edges++] = vertex(vertices, order, new Point(seg[3], seg[4], seg[5]));
+                continue;
+            }
+
+            // An end drawn by another group is left out: the edge then starts or ends at its
+            // nearest interior point instead, which keeps every other point in place
+            int length = Math.abs(seg[3] - seg[0]) + Math.abs(seg[4] - seg[1]) + Math.abs(seg[5] - seg[2]);
+            int interior = Wireframe.interiorCount(length, step);
+            if (interior == 0) {
+                if (keepFrom) vertex(vertices, order, new Point(seg[0], seg[1], seg[2]));
+                if (keepTo) vertex(vertices, order, new Point(seg[3], seg[4], seg[5]));
+                continue;
+            }
+            double dx = Integer.signum(seg[3] - seg[0]) * step;
+            double dy = Integer.signum(seg[4] - seg[1]) * step;
+            double dz = Integer.signum(seg[5] - seg[2]) * step;
+            int a = keepFrom
+                    ? vertex(vertices, order, new Point(seg[0], seg[1], seg[2]))
+                    : extra(order, seg[0] + dx, seg[1] + dy, seg[2] + dz);
+            if (!keepFrom && !keepTo && interior == 1) continue;
+            int b = keepTo
+                    ? vertex(vertices, order, new Point(seg[3], seg[4], seg[5]))
+                    : extra(order, seg[0] + dx * interior, seg[1] + dy * interior, seg[2] + dz * interior);
+            from[edges] = a;
+            to[edges++] = b;
+        }
+
+        double[] vx = new double[order.size()];
+        double[] vy = new double[order.size()];
+        double[] vz = new double[order.size()];
+        for (int v = 0; v < order.size(); v++) {
+            double[] p = order.get(v);
+            vx[v] = p[0];
+            vy[v] = p[1];
+            vz[v] = p[2];
+        }
+        from = Arrays.copyOf(from, edges);
+        to = Arrays.copyOf(to, edges);
+
+        long points = order.size();
+        for (int e = 0; e < edges; e++) {
+            double length = Math.abs(vx[to[e]] - vx[from[e]]) + Math.abs(vy[to[e]] - vy[from[e]]) + Math.abs(vz[to[e]] - vz[from[e]]);
+            points += Wireframe.countPoints(length, step);
+        }
+
+        if (streamingThreshold > 0 && points > streamingThreshold) {
+            return Wireframe.stream(vx, vy, vz, from, to, step);
+        }
+        return Wireframe.build(vx, vy, vz, from, to, step);
+    }
+
+    // Whether the highest-ranked edge through the point belongs to the group
+    private boolean ownsVertex(int x, int y, int z, int group) {
+        long best = Long.MIN_VALUE;
+        int owner = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            Line line = switch (axis) {
+                case 0 -> new Line(0, y, z);
+                case 1 -> new Line(1, x, z);
+                default -> new Line(2, x, y);
+            };
+            int coordinate = axis == 0 ? x : axis == 1 ? y : z;
+            int[] data = lines.get(line);
+            if (data == null) continue;
+            int size = lineSizes.get(line);
+            for (int i = 0; i < size; i += 4) {
+                if (data[i] > coordinate || coordinate > data[i + 1]) continue;
+                long rank = ((long) data[i + 3] << 32) | (data[i + 2] & 0xFFFFFFFFL);
+                if (rank > best) {
+                    best = rank;
+                    owner = data[i + 2];
+                }
+            }
+        }
+        return owner == group;
+    }
+
+    // A vertex used by a single edge, so it is not shared
+    private static int extra(List<double[]> order, double x, double y, double z) {
+        order.add(new double[]{x, y, z});
+        return order.size() - 1;
+    }
+
+    private static int vertex(Map<Point, Integer> vertices, List<double[]> order, Point point) {
+        Integer index = vertices.get(point);
+        if (index != null) return index;
+        vertices.put(point, order.size());
+        order.add(new double[]{point.x(), point.y(), point.z()});
+        return order.size() - 1;
+    }
+}
@@ -0,0 +1,167 @@
+package com.regionvision.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Shared cache of on-demand wireframes, so players looking at the same region share one copy.
+ * <p>
+ * Entries are keyed by world, region id, bounds and density; a region whose bounds change gets a
+ * new key and replaces its old entry. The cache is bounded by the total number of points held and
+ * evicts the least recently used entries first; entries older than the TTL are rebuilt.
+ * Concurrent requests for the same missing key wait for a single build.
+ */
+public final class GeometryCache {
+
+    public record Key(String world, String regionId,
+                      int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                      double density) {
+
+        private String region() {
+            return world + ":" + regionId;
+        }
+    }
+
+    private record Entry(Wireframe geometry, long createdAt) {}
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Key> keysByRegion = new HashMap<>();
+    private final Map<Key, CompletableFuture<Wireframe>> inFlight = new HashMap<>();
+
+    private long maxPoints;
+    private long ttlMillis;
+    private long points;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public GeometryCache(long maxPoints, long ttlMillis) {
+        this.maxPoints = maxPoints;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public synchronized void setLimits(long maxPoints, long ttlMillis) {
+        this.maxPoints = maxPoints;
+        this.ttlMillis = ttlMillis;
+        trim();
+    }
+
+    /**
+     * Returns the cached wireframe for the key, building it with {@code builder} on a miss.
+     * May block while another thread builds the same key; call it off the main thread.
+     */
+    public Wireframe get(Key key, Supplier<Wireframe> builder) {
+        CompletableFuture<Wireframe> pending;
+        boolean owner = false;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !isExpired(entry)) {
+                hits++;
+                return entry.geometry();
+            }
+            if (entry != null) {
+                remove(key);
+                evictions++;
+            }
+            misses++;
+
+            pending = inFlight.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                inFlight.put(key, pending);
+                owner = true;
+            }
+        }
+
+        if (!owner) return pending.join();
+
+        try {
+            Wireframe geometry = builder.get();
+            put(key, geometry);
+            pending.complete(geometry);
+            return geometry;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    private synchronized void put(Key key, Wireframe geometry) {
+        // Bounds or density changed: the old entry for this region is stale
+        Key previous = keysByRegion.put(key.region(), key);
+        if (previous != null && !previous.equals(key)) {
+            remove(previous);
+        }
+        remove(key);
+
+        entries.put(key, new Entry(geometry, System.currentTimeMillis()));
+        points += geometry.getStoredPointCount();
+        trim();
+    }
+
+    /**
+     * Drops every cached wireframe of the region, e.g. after it was redefined.
+     */
+    public synchronized void invalidate(String world, String regionId) {
+        Key key = keysByRegion.remove(world + ":" + regionId);
+        if (key != null) remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysByRegion.clear();
+        points = 0;
+    }
+
+    private void trim() {
+        // Least recently used first; stop at the first entry that may stay
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            if (points <= maxPoints && !isExpired(eldest.getValue())) break;
+            it.remove();
+            points -= eldest.getValue().geometry().getStoredPointCount();
+            keysByRegion.remove(eldest.getKey().region(), eldest.getKey());
+            evictions++;
+        }
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) points -= entry.geometry().getStoredPointCount();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMillis > 0 && System.currentTimeMillis() - entry.createdAt() > ttlMillis;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /** Total number of points currently held in memory; streamed geometry only counts its vertices. */
+    public synchronized long getPoints() {
+        return points;
+    }
+}
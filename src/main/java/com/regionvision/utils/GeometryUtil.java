@@ -1,12 +1,7 @@
 package com.regionvision.utils;
 
-import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.util.Vector;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Handles geometric calculations for visualizing cuboids.
  * Uses Java 21 features.
@@ -15,13 +10,32 @@ public class GeometryUtil {
 
     public record CuboidBounds(Vector min, Vector max) {}
 
+    /** Smallest allowed spacing between particles; protects against zero or negative densities. */
+    public static final double MIN_STEP = 0.05;
+
+    // Corner index bits: 1 = max X, 2 = max Y, 4 = max Z.
+    // Bottom rectangle, top rectangle, then the vertical pillars
+    private static final int[] EDGE_FROM = {0, 0, 1, 4, 2, 2, 3, 6, 0, 1, 4, 5};
+    private static final int[] EDGE_TO   = {1, 4, 5, 5, 3, 6, 7, 7, 2, 3, 6, 7};
+
+    /** Cuboids with more points than this are streamed instead of packed by default. */
+    public static final int DEFAULT_STREAMING_THRESHOLD = 100_000;
+
     /**
-     * Generates a list of locations representing the wireframe of a cuboid.
+     * Generates the packed wireframe of a cuboid. The 8 corners are stored once and the
+     * 12 edges only hold their interior points.
      * This method is computationally intensive and should be called asynchronously.
      */
-    public static List<Location> getCuboidWireframe(World world, Vector min, Vector max, double step) {
-        List<Location> particles = new ArrayList<>();
-        
+    public static Wireframe getCuboidWireframe(Vector min, Vector max, double step) {
+        return getCuboidWireframe(min, max, step, DEFAULT_STREAMING_THRESHOLD);
+    }
+
+    /**
+     * Generates the wireframe of a cuboid, streaming it when it would hold more than
+     * {@code streamingThreshold} points (0 or less never streams). A streamed cuboid only
+     * stores its 8 corners, whatever its size.
+     */
+    public static Wireframe getCuboidWireframe(Vector min, Vector max, double step, int streamingThreshold) {
         double minX = min.getX();
         double minY = min.getY();
         double minZ = min.getZ();
@@ -29,45 +43,23 @@ public class GeometryUtil {
         double maxY = max.getY() + 1.0;
         double maxZ = max.getZ() + 1.0;
 
-        // Bottom Rectangle
-        particles.addAll(getLine(world, minX, minY, minZ, maxX, minY, minZ, step));
-        particles.addAll(getLine(world, minX, minY, minZ, minX, minY, maxZ, step));
-        particles.addAll(getLine(world, maxX, minY, minZ, maxX, minY, maxZ, step));
-        particles.addAll(getLine(world, minX, minY, maxZ, maxX, minY, maxZ, step));
-
-        // Top Rectangle
-        particles.addAll(getLine(world, minX, maxY, minZ, maxX, maxY, minZ, step));
-        particles.addAll(getLine(world, minX, maxY, minZ, minX, maxY, maxZ, step));
-        particles.addAll(getLine(world, maxX, maxY, minZ, maxX, maxY, maxZ, step));
-        particles.addAll(getLine(world, minX, maxY, maxZ, maxX, maxY, maxZ, step));
-
-        // Vertical Pillars
-        particles.addAll(getLine(world, minX, minY, minZ, minX, maxY, minZ, step));
-        particles.addAll(getLine(world, maxX, minY, minZ, maxX, maxY, minZ, step));
-        particles.addAll(getLine(world, minX, minY, maxZ, minX, maxY, maxZ, step));
-        particles.addAll(getLine(world, maxX, minY, maxZ, maxX, maxY, maxZ, step));
-
-        return particles;
-    }
+        double[] vx = new double[8];
+        double[] vy = new double[8];
+        double[] vz = new double[8];
+        for (int corner = 0; corner < 8; corner++) {
+            vx[corner] = (corner & 1) == 0 ? minX : maxX;
+            vy[corner] = (corner & 2) == 0 ? minY : maxY;
+            vz[corner] = (corner & 4) == 0 ? minZ : maxZ;
+        }
 
-    private static List<Location> getLine(World world, double x1, double y1, double z1, double x2, double y2, double z2, double step) {
-        List<Location> points = new ArrayList<>();
-        Vector start = new Vector(x1, y1, z1);
-        Vector end = new Vector(x2, y2, z2);
-        Vector vector = end.clone().subtract(start);
-        double length = vector.length();
-        
-        if (length == 0) return points;
+        double spacing = Math.max(step, MIN_STEP);
+        long points = 8 + 4 * (Wireframe.countPoints(maxX - minX, spacing)
+                + Wireframe.countPoints(maxY - minY, spacing)
+                + Wireframe.countPoints(maxZ - minZ, spacing));
 
-        // Calculate the step vector once
-        Vector stepVector = vector.clone().normalize().multiply(step);
-        
-        // Iterate by adding the step vector to the current point
-        for (double covered = 0; covered < length; covered += step) {
-            points.add(start.clone().toLocation(world));
-            start.add(stepVector);
+        if (streamingThreshold > 0 && points > streamingThreshold) {
+            return Wireframe.stream(vx, vy, vz, EDGE_FROM, EDGE_TO, spacing);
         }
-        
-        return points;
+        return Wireframe.build(vx, vy, vz, EDGE_FROM, EDGE_TO, spacing);
     }
-}
\ No newline at end of file
+}
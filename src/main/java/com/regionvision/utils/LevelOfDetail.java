@@ -0,0 +1,43 @@
+package com.regionvision.utils;
+
+import java.util.List;
+
+/**
+ * Picks how dense a wireframe is drawn for a viewer. Close to a line it is drawn solid;
+ * every distance threshold passed halves the density. Beyond the first threshold huge
+ * wireframes are thinned further until they fit the target point budget.
+ */
+public final class LevelOfDetail {
+
+    /** Always the full density. */
+    public static final LevelOfDetail NONE = new LevelOfDetail(List.of(), 0);
+
+    private final double[] distancesSquared;
+    private final int targetPoints;
+
+    /**
+     * @param distances    ascending distances up to which level 0, 1, 2... is used
+     * @param targetPoints point budget for viewers past the first distance, 0 for none
+     */
+    public LevelOfDetail(List<Double> distances, int targetPoints) {
+        this.distancesSquared = new double[distances.size()];
+        for (int i = 0; i < distancesSquared.length; i++) {
+            double d = distances.get(i);
+            distancesSquared[i] = d * d;
+        }
+        this.targetPoints = targetPoints;
+    }
+
+    public int select(Wireframe wireframe, double x, double y, double z) {
+        if (distancesSquared.length == 0) return 0;
+
+        double d2 = wireframe.edgeDistanceSquared(x, y, z);
+        int level = 0;
+        while (level < distancesSquared.length && d2 > distancesSquared[level]) level++;
+
+        if (level > 0 && targetPoints > 0) {
+            level = Math.max(level, wireframe.getLevelForBudget(targetPoints));
+        }
+        return Math.min(level, Wireframe.MAX_LEVEL);
+    }
+}
@@ -0,0 +1,209 @@
+package com.regionvision.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime cost of the plugin: particles sent per tick, per player and per region, and the time
+ * spent in the render loop, in async culling and geometry builds, and in the move check.
+ * <p>
+ * Everything is collected over a window of ticks; when it ends the totals are published as an
+ * immutable {@link Window} (read by {@code /rv stats} and the bStats charts from any thread)
+ * and counting starts over. Particle counts and {@link #endTick()} belong to the main thread,
+ * timings and build costs may be recorded from any thread.
+ */
+public final class PerformanceMetrics {
+
+    public enum Timer {
+        RENDER_LOOP("Render loop"),
+        FRAME_PREPARE("Frame culling (async)"),
+        GEOMETRY_BUILD("Geometry build (async)"),
+        MOVE_CHECK("Move check"),
+        MOVE_BATCH("Move batch (async)");
+
+        private final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public record TimerStats(long count, long totalNanos, long maxNanos) {
+        public double averageMillis() {
+            return count == 0 ? 0 : totalNanos / (double) count / 1_000_000.0;
+        }
+
+        public double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+
+    /** Cost of one region over a window; particle counts cover every viewer it was sent to. */
+    public record RegionCost(String key, long particles, long sends, long builds, long buildNanos) {}
+
+    public record Window(int ticks, long particles, long peakTickParticles, Map<UUID, Long> playerParticles,
+                         Map<Timer, TimerStats> timers, List<RegionCost> regions) {
+
+        public double particlesPerTick() {
+            return ticks == 0 ? 0 : particles / (double) ticks;
+        }
+
+        public double seconds() {
+            return ticks / 20.0;
+        }
+    }
+
+    private static final class TimerCounter {
+        final LongAdder count = new LongAdder();
+        final LongAdder total = new LongAdder();
+        final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    }
+
+    private static final class CostCounter {
+        final LongAdder particles = new LongAdder();
+        final LongAdder sends = new LongAdder();
+        final LongAdder builds = new LongAdder();
+        final LongAdder buildNanos = new LongAdder();
+    }
+
+    private final EnumMap<Timer, TimerCounter> timers = new EnumMap<>(Timer.class);
+    private volatile Map<String, CostCounter> regionCosts = new ConcurrentHashMap<>();
+
+    // Main thread only
+    private Map<UUID, long[]> playerParticles = new HashMap<>();
+    private long tickParticles;
+    private long windowParticles;
+    private long peakTickParticles;
+    private int ticks;
+    private int windowTicks;
+
+    private volatile Window lastWindow;
+
+    /**
+     * @param windowTicks ticks per published window
+     */
+    public PerformanceMetrics(int windowTicks) {
+        for (Timer timer : Timer.values()) timers.put(timer, new TimerCounter());
+        setWindowTicks(windowTicks);
+    }
+
+    public void setWindowTicks(int windowTicks) {
+        this.windowTicks = Math.max(20, windowTicks);
+    }
+
+    public void recordTime(Timer timer, long nanos) {
+        TimerCounter counter = timers.get(timer);
+        counter.count.increment();
+        counter.total.add(nanos);
+        counter.max.accumulate(nanos);
+    }
+
+    /**
+     * Particles sent to one viewer for a visualization. Main thread only.
+     */
+    public void recordSend(String costKey, UUID viewer, int particles) {
+        tickParticles += particles;
+        long[] perPlayer = playerParticles.get(viewer);
+        if (perPlayer == null) {
+            perPlayer = new long[1];
+            playerParticles.put(viewer, perPlayer);
+        }
+        perPlayer[0] += particles;
+
+        CostCounter cost = regionCosts.computeIfAbsent(costKey, k -> new CostCounter());
+        cost.particles.add(particles);
+        cost.sends.increment();
+    }
+
+    /**
+     * A finished geometry build, charged to the region it was built for.
+     */
+    public void recordBuild(String costKey, long nanos) {
+        recordTime(Timer.GEOMETRY_BUILD, nanos);
+        CostCounter cost = regionCosts.computeIfAbsent(costKey, k -> new CostCounter());
+        cost.builds.increment();
+        cost.buildNanos.add(nanos);
+    }
+
+    /**
+     * Closes the current tick; publishes and resets the window once it is full. Main thread only.
+     */
+    public void endTick() {
+        windowParticles += tickParticles;
+        peakTickParticles = Math.max(peakTickParticles, tickParticles);
+        tickParticles = 0;
+        if (++ticks < windowTicks) return;
+
+        lastWindow = collect(true);
+    }
+
+    /**
+     * The last complete window, or null before the first one ends.
+     */
+    public Window getLastWindow() {
+        return lastWindow;
+    }
+
+    /**
+     * The window in progress, without resetting it. Main thread only.
+     */
+    public Window getCurrentWindow() {
+        return collect(false);
+    }
+
+    private Window collect(boolean reset) {
+        Map<UUID, Long> players = new HashMap<>(playerParticles.size() * 2);
+        for (Map.Entry<UUID, long[]> entry : playerParticles.entrySet()) {
+            players.put(entry.getKey(), entry.getValue()[0]);
+        }
+
+        EnumMap<Timer, TimerStats> timerStats = new EnumMap<>(Timer.class);
+        for (Map.Entry<Timer, TimerCounter> entry : timers.entrySet()) {
+            TimerCounter c = entry.getValue();
+            timerStats.put(entry.getKey(), reset
+                    ? new TimerStats(c.count.sumThenReset(), c.total.sumThenReset(), c.max.getThenReset())
+                    : new TimerStats(c.count.sum(), c.total.sum(), c.max.get()));
+        }
+
+        Map<String, CostCounter> costs = regionCosts;
+        if (reset) regionCosts = new ConcurrentHashMap<>();
+        List<RegionCost> regions = new ArrayList<>(costs.size());
+        for (Map.Entry<String, CostCounter> entry : costs.entrySet()) {
+            CostCounter c = entry.getValue();
+            regions.add(new RegionCost(entry.getKey(), c.particles.sum(), c.sends.sum(), c.builds.sum(), c.buildNanos.sum()));
+        }
+
+        Window window = new Window(ticks, windowParticles, peakTickParticles, Map.copyOf(players),
+                timerStats, List.copyOf(regions));
+        if (reset) {
+            playerParticles = new HashMap<>();
+            windowParticles = 0;
+            peakTickParticles = 0;
+            ticks = 0;
+        }
+        return window;
+    }
+
+    /**
+     * The most expensive regions of a window: by particles sent, then by build time.
+     */
+    public static List<RegionCost> topRegions(Window window, int limit) {
+        return window.regions().stream()
+                .sorted(Comparator.comparingLong(RegionCost::particles)
+                        .thenComparingLong(RegionCost::buildNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.regionvision.utils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Region ids of one world in case-insensitive sorted order, for tab completion.
+ * <p>
+ * A prefix lookup seeks to the first match and walks forward, so it costs O(log n + k)
+ * and yields results already sorted. Updates only touch the ids that changed.
+ * Safe to read from any thread while it is being updated.
+ */
+public final class RegionNameIndex {
+
+    // Lower-cased id -> id as WorldGuard reports it
+    private final ConcurrentSkipListMap<String, String> names = new ConcurrentSkipListMap<>();
+
+    /**
+     * Makes the index hold exactly the given ids, adding and removing only the difference.
+     */
+    public void sync(Collection<String> ids) {
+        Set<String> keys = new HashSet<>(ids.size() * 2);
+        for (String id : ids) {
+            String key = id.toLowerCase(Locale.ROOT);
+            keys.add(key);
+            names.putIfAbsent(key, id);
+        }
+        if (names.size() == keys.size()) return;
+        names.keySet().removeIf(key -> !keys.contains(key));
+    }
+
+    /**
+     * Adds up to {@code limit} ids starting with the prefix (ignoring case), in sorted order.
+     */
+    public void complete(String prefix, int limit, List<String> out) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        ConcurrentNavigableMap<String, String> tail = names.tailMap(from, true);
+        Iterator<Map.Entry<String, String>> it = tail.entrySet().iterator();
+        int added = 0;
+        while (added < limit && it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            if (!entry.getKey().startsWith(from)) break;
+            out.add(entry.getValue());
+            added++;
+        }
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
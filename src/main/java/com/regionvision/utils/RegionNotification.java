@@ -0,0 +1,60 @@
+package com.regionvision.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.title.Title;
+
+import java.time.Duration;
+
+/**
+ * Entry notification of a permanent region, parsed once when its settings load or change
+ * so entering the region only has to send it.
+ */
+public final class RegionNotification {
+
+    public enum Type {
+        NONE, ACTION_BAR, TITLE, BOSS_BAR
+    }
+
+    public static final RegionNotification NONE = new RegionNotification(Type.NONE, Component.empty());
+
+    private static final Title.Times TITLE_TIMES =
+            Title.Times.times(Duration.ofMillis(500), Duration.ofMillis(3000), Duration.ofMillis(1000));
+
+    private final Type type;
+    private final Component message;
+    private final Title title;
+
+    private RegionNotification(Type type, Component message) {
+        this.type = type;
+        this.message = message;
+        this.title = type == Type.TITLE ? Title.title(message, Component.empty(), TITLE_TIMES) : null;
+    }
+
+    /**
+     * Parses the stored type and MiniMessage text. Unknown types compile to {@link #NONE}.
+     */
+    public static RegionNotification compile(String type, String message) {
+        Type parsed;
+        try {
+            parsed = type == null ? Type.NONE : Type.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            parsed = Type.NONE;
+        }
+        if (parsed == Type.NONE) return NONE;
+        return new RegionNotification(parsed, MiniMessage.miniMessage().deserialize(message == null ? "" : message));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Component getMessage() {
+        return message;
+    }
+
+    /** The ready-made title, only set for {@link Type#TITLE}. */
+    public Title getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,411 @@
+package com.regionvision.utils;
+
+import com.regionvision.RegionVisionPlugin;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Spatial queries over WorldGuard regions without scanning every region of the world.
+ * <p>
+ * Each world has an immutable snapshot: the bounds and priority of every physical region,
+ * bucketed into a 64-block X/Z grid. WorldGuard fires no events when regions change, so
+ * snapshots are rebuilt off the main thread, right after a region command ran (see
+ * {@link #refreshSoon()}) and every {@code performance.region-index-refresh} seconds for changes
+ * made through the API; a world's snapshot is only replaced when its regions actually changed.
+ * Queries never touch WorldGuard's live region map, so they are safe from any thread.
+ * Polygonal regions are matched by their bounding box first and then by
+ * {@link ProtectedRegion#contains(int, int, int)}.
+ * <p>
+ * Every world also keeps a {@link RegionNameIndex} of all its region ids for tab completion.
+ */
+public final class RegionQueryService {
+
+    private static final int CELL_SHIFT = 6; // 64-block cells
+    private static final int MAX_CELLS_PER_ENTRY = 1024;
+
+    private static final Comparator<Entry> BY_PRIORITY = Comparator
+            .comparingInt((Entry e) -> e.priority).reversed()
+            .thenComparing(e -> e.region.getId());
+
+    private static final class Entry {
+        final ProtectedRegion region;
+        final int priority;
+        final boolean cuboid;
+        final int minX, minY, minZ, maxX, maxY, maxZ;
+        final int cellMinX, cellMinZ, cellMaxX, cellMaxZ;
+
+        Entry(ProtectedRegion region) {
+            this.region = region;
+            this.priority = region.getPriority();
+            this.cuboid = region.getType() == RegionType.CUBOID;
+            BlockVector3 lo = region.getMinimumPoint();
+            BlockVector3 hi = region.getMaximumPoint();
+            this.minX = lo.getX();
+            this.minY = lo.getY();
+            this.minZ = lo.getZ();
+            this.maxX = hi.getX();
+            this.maxY = hi.getY();
+            this.maxZ = hi.getZ();
+            this.cellMinX = minX >> CELL_SHIFT;
+            this.cellMinZ = minZ >> CELL_SHIFT;
+            this.cellMaxX = maxX >> CELL_SHIFT;
+            this.cellMaxZ = maxZ >> CELL_SHIFT;
+        }
+
+        boolean oversized() {
+            return (long) (cellMaxX - cellMinX + 1) * (cellMaxZ - cellMinZ + 1) > MAX_CELLS_PER_ENTRY;
+        }
+
+        boolean intersects(int x1, int y1, int z1, int x2, int y2, int z2) {
+            return minX <= x2 && maxX >= x1 && minY <= y2 && maxY >= y1 && minZ <= z2 && maxZ >= z1;
+        }
+
+        boolean contains(int x, int y, int z) {
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) return false;
+            return cuboid || region.contains(x, y, z);
+        }
+
+        // Squared distance from the point to the bounding box, 0 inside
+        double distanceSquared(double x, double y, double z) {
+            double dx = Math.max(0, Math.max(minX - x, x - (maxX + 1)));
+            double dy = Math.max(0, Math.max(minY - y, y - (maxY + 1)));
+            double dz = Math.max(0, Math.max(minZ - z, z - (maxZ + 1)));
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /** Never modified after construction. */
+    private static final class Snapshot {
+        final Entry[] entries;
+        // All regions of the world, including non-physical ones like __global__
+        final int regionCount;
+        final Map<Long, Entry[]> cells;
+        final Entry[] oversized;
+        final int minX, minZ, maxX, maxZ;
+
+        Snapshot(Entry[] entries, int regionCount) {
+            this.entries = entries;
+            this.regionCount = regionCount;
+            Map<Long, List<Entry>> grid = new HashMap<>();
+            List<Entry> big = new ArrayList<>();
+            int loX = Integer.MAX_VALUE, loZ = Integer.MAX_VALUE, hiX = Integer.MIN_VALUE, hiZ = Integer.MIN_VALUE;
+            for (Entry entry : entries) {
+                loX = Math.min(loX, entry.minX);
+                loZ = Math.min(loZ, entry.minZ);
+                hiX = Math.max(hiX, entry.maxX);
+                hiZ = Math.max(hiZ, entry.maxZ);
+                if (entry.oversized()) {
+                    big.add(entry);
+                    continue;
+                }
+                for (int cx = entry.cellMinX; cx <= entry.cellMaxX; cx++) {
+                    for (int cz = entry.cellMinZ; cz <= entry.cellMaxZ; cz++) {
+                        grid.computeIfAbsent(key(cx, cz), k -> new ArrayList<>(4)).add(entry);
+                    }
+                }
+            }
+            this.cells = new HashMap<>(grid.size() * 2);
+            for (Map.Entry<Long, List<Entry>> cell : grid.entrySet()) {
+                cells.put(cell.getKey(), cell.getValue().toArray(new Entry[0]));
+            }
+            this.oversized = big.toArray(new Entry[0]);
+            this.minX = loX;
+            this.minZ = loZ;
+            this.maxX = hiX;
+            this.maxZ = hiZ;
+        }
+
+        // Every entry whose bounds intersect the box, each exactly once
+        void query(int x1, int y1, int z1, int x2, int y2, int z2, Collection<Entry> out) {
+            for (Entry entry : oversized) {
+                if (entry.intersects(x1, y1, z1, x2, y2, z2)) out.add(entry);
+            }
+            int qMinX = x1 >> CELL_SHIFT, qMinZ = z1 >> CELL_SHIFT;
+            int qMaxX = x2 >> CELL_SHIFT, qMaxZ = z2 >> CELL_SHIFT;
+            if ((long) (qMaxX - qMinX + 1) * (qMaxZ - qMinZ + 1) > cells.size()) {
+                // The box spans more cells than are occupied; walk the entries instead
+                for (Entry entry : entries) {
+                    if (!entry.oversized() && entry.intersects(x1, y1, z1, x2, y2, z2)) out.add(entry);
+                }
+                return;
+            }
+            for (int cx = qMinX; cx <= qMaxX; cx++) {
+                for (int cz = qMinZ; cz <= qMaxZ; cz++) {
+                    Entry[] cell = cells.get(key(cx, cz));
+                    if (cell == null) continue;
+                    for (Entry entry : cell) {
+                        // Report an entry spanning several cells only from the first cell the box shares with it
+                        if (cx != Math.max(entry.cellMinX, qMinX) || cz != Math.max(entry.cellMinZ, qMinZ)) continue;
+                        if (entry.intersects(x1, y1, z1, x2, y2, z2)) out.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private final RegionVisionPlugin plugin;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, RegionNameIndex> names = new ConcurrentHashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
+    private BukkitTask refreshTask;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public RegionQueryService(RegionVisionPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Reads every loaded world and schedules the periodic background refresh. Main thread only.
+     */
+    public void start() {
+        refreshAll();
+        long period = Math.max(1, plugin.getConfig().getLong("performance.region-index-refresh", 5)) * 20L;
+        refreshTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refreshAll, period, period);
+    }
+
+    /**
+     * Refreshes every world in the background on the next tick, e.g. after a region command,
+     * which has run by then. Requests made before that refresh starts share it.
+     */
+    public void refreshSoon() {
+        if (!refreshQueued.compareAndSet(false, true)) return;
+        Bukkit.getScheduler().runTaskLater(plugin, () -> Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            refreshQueued.set(false);
+            refreshAll();
+        }), 1L);
+    }
+
+    public void shutdown() {
+        if (refreshTask != null) refreshTask.cancel();
+        refreshTask = null;
+        snapshots.clear();
+        names.clear();
+    }
+
+    /**
+     * Registers a callback that receives the world name whenever that world's snapshot is replaced
+     * with changed regions. It runs on the thread that published the snapshot, usually not the main one.
+     */
+    public void addChangeListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Changes whenever any world's snapshot is replaced, so callers can drop derived caches.
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Regions indexed across all worlds.
+     */
+    public int getRegionCount() {
+        int count = 0;
+        for (Snapshot snapshot : snapshots.values()) count += snapshot.regionCount;
+        return count;
+    }
+
+    /**
+     * Re-reads every world WorldGuard has loaded. Only uses WorldGuard's region managers, which
+     * are thread-safe, so it may run on any thread.
+     */
+    public synchronized void refreshAll() {
+        Set<String> loaded = new HashSet<>();
+        for (RegionManager manager : WorldGuard.getInstance().getPlatform().getRegionContainer().getLoaded()) {
+            loaded.add(manager.getName());
+            update(manager.getName(), manager.getRegions().values());
+        }
+        if (snapshots.keySet().retainAll(loaded)) version.incrementAndGet();
+        names.keySet().retainAll(loaded);
+    }
+
+    /**
+     * Re-reads one world from WorldGuard, keeping the old snapshot if nothing changed. Main thread only.
+     */
+    public synchronized void refresh(World world) {
+        RegionManager manager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(world));
+        if (manager == null) {
+            names.remove(world.getName());
+            if (snapshots.remove(world.getName()) != null) version.incrementAndGet();
+            return;
+        }
+
+        update(world.getName(), manager.getRegions().values());
+    }
+
+    /**
+     * Replaces the world's snapshot with the given regions, unless they are the ones it already holds.
+     */
+    public synchronized void update(String worldName, Collection<ProtectedRegion> all) {
+        List<ProtectedRegion> regions = new ArrayList<>();
+        for (ProtectedRegion region : all) {
+            if (region.isPhysicalArea()) regions.add(region);
+        }
+
+        Snapshot old = snapshots.get(worldName);
+        if (old != null && unchanged(old, all.size(), regions)) return;
+
+        Entry[] entries = new Entry[regions.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(regions.get(i));
+        }
+        snapshots.put(worldName, new Snapshot(entries, all.size()));
+        version.incrementAndGet();
+        for (Consumer<String> listener : listeners) listener.accept(worldName);
+
+        List<String> ids = new ArrayList<>(all.size());
+        for (ProtectedRegion region : all) ids.add(region.getId());
+        names.computeIfAbsent(worldName, w -> new RegionNameIndex()).sync(ids);
+    }
+
+    // WorldGuard replaces the region object on redefine, so identity and priority catch every change
+    private static boolean unchanged(Snapshot old, int regionCount, List<ProtectedRegion> regions) {
+        if (old.regionCount != regionCount || old.entries.length != regions.size()) return false;
+        // Regions compare equal by id, so match them by identity
+        Map<ProtectedRegion, Entry> known = new IdentityHashMap<>(old.entries.length * 2);
+        for (Entry entry : old.entries) known.put(entry.region, entry);
+        for (ProtectedRegion region : regions) {
+            Entry entry = known.get(region);
+            if (entry == null || entry.priority != region.getPriority()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds up to {@code limit} region ids of the world starting with the prefix, sorted and ignoring case.
+     */
+    public void completeNames(String worldName, String prefix, int limit, List<String> out) {
+        RegionNameIndex index = names.get(worldName);
+        if (index != null) index.complete(prefix, limit, out);
+    }
+
+    /**
+     * Adds every region whose bounds intersect the box (inclusive block coordinates).
+     */
+    public void queryBox(String worldName, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                         Collection<ProtectedRegion> out) {
+        Snapshot snapshot = snapshots.get(worldName);
+        if (snapshot == null) return;
+        List<Entry> found = new ArrayList<>();
+        snapshot.query(minX, minY, minZ, maxX, maxY, maxZ, found);
+        for (Entry entry : found) out.add(entry.region);
+    }
+
+    /**
+     * Adds every region whose bounds come within the radius of the position.
+     */
+    public void queryRadius(String worldName, double x, double y, double z, double radius, Collection<ProtectedRegion> out) {
+        Snapshot snapshot = snapshots.get(worldName);
+        if (snapshot == null) return;
+        List<Entry> found = new ArrayList<>();
+        snapshot.query(floor(x - radius), floor(y - radius), floor(z - radius),
+                floor(x + radius), floor(y + radius), floor(z + radius), found);
+        double radiusSquared = radius * radius;
+        for (Entry entry : found) {
+            if (entry.distanceSquared(x, y, z) <= radiusSquared) out.add(entry.region);
+        }
+    }
+
+    /**
+     * Returns the regions containing the block, highest priority first (ties by id).
+     */
+    public List<ProtectedRegion> getRegionsAt(String worldName, int x, int y, int z) {
+        Snapshot snapshot = snapshots.get(worldName);
+        if (snapshot == null) return List.of();
+        List<Entry> found = new ArrayList<>(4);
+        snapshot.query(x, y, z, x, y, z, found);
+        found.removeIf(entry -> !entry.contains(x, y, z));
+        found.sort(BY_PRIORITY);
+
+        List<ProtectedRegion> result = new ArrayList<>(found.size());
+        for (Entry entry : found) result.add(entry.region);
+        return result;
+    }
+
+    /**
+     * Returns the highest-priority region containing the block, or null.
+     */
+    public ProtectedRegion getRegionAt(String worldName, int x, int y, int z) {
+        Snapshot snapshot = snapshots.get(worldName);
+        if (snapshot == null) return null;
+        List<Entry> found = new ArrayList<>(4);
+        snapshot.query(x, y, z, x, y, z, found);
+
+        Entry best = null;
+        for (Entry entry : found) {
+            if (!entry.contains(x, y, z)) continue;
+            if (best == null || BY_PRIORITY.compare(entry, best) < 0) best = entry;
+        }
+        return best != null ? best.region : null;
+    }
+
+    /**
+     * Returns up to {@code k} regions closest to the position by bounding box, nearest first.
+     * The search box doubles until it holds {@code k} regions or covers the whole world.
+     */
+    public List<ProtectedRegion> nearest(String worldName, double x, double y, double z, int k) {
+        Snapshot snapshot = snapshots.get(worldName);
+        if (snapshot == null || k <= 0 || snapshot.entries.length == 0) return List.of();
+
+        // Farthest any region can be in X/Z; beyond this every region has been seen
+        double reach = Math.max(Math.max(Math.abs(x - snapshot.minX), Math.abs(x - (snapshot.maxX + 1))),
+                Math.max(Math.abs(z - snapshot.minZ), Math.abs(z - (snapshot.maxZ + 1))));
+        List<Entry> found = new ArrayList<>();
+        for (double radius = 1 << CELL_SHIFT; ; radius *= 2) {
+            found.clear();
+            boolean all = radius >= reach;
+            if (all) {
+                found.addAll(Arrays.asList(snapshot.entries));
+            } else {
+                snapshot.query(floor(x - radius), Integer.MIN_VALUE, floor(z - radius),
+                        floor(x + radius), Integer.MAX_VALUE, floor(z + radius), found);
+            }
+            found.sort(Comparator.comparingDouble(entry -> entry.distanceSquared(x, y, z)));
+
+            // Anything outside the box is farther than the radius, so the first k within it are final
+            int within = 0;
+            while (within < found.size() && within < k && found.get(within).distanceSquared(x, y, z) <= radius * radius) {
+                within++;
+            }
+            if (all || within == k) {
+                int n = Math.min(k, found.size());
+                List<ProtectedRegion> result = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) result.add(found.get(i).region);
+                return result;
+            }
+        }
+    }
+
+    private static int floor(double value) {
+        return (int) Math.floor(value);
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
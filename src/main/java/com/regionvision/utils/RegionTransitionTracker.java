@@ -0,0 +1,251 @@
+package com.regionvision.utils;
+
+import com.regionvision.managers.PermanentRegionManager;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks which permanent regions every player is standing in and reports entries.
+ * <p>
+ * World-qualified region keys are interned to integer handles and each player's membership is a bitset.
+ * The permanent regions touching a chunk are resolved once and cached, so a move inside the
+ * same chunk only runs a few bounds checks: no region query and no allocation. Chunks are
+ * resolved through the {@link RegionQueryService} index, so no WorldGuard call is made at all.
+ * Polygonal regions fall back to {@link ProtectedRegion#contains(int, int, int)} once their
+ * bounding box matches.
+ * <p>
+ * Optionally, to stop flapping at borders, a player only leaves a cuboid once they are more than
+ * the hysteresis margin outside it, and a region notifies at most once per cooldown. Both are
+ * off by default.
+ * <p>
+ * Calls are serialized, so the tracker may be driven from move events on the main thread
+ * or from a batch worker; the handler runs on the calling thread.
+ */
+public final class RegionTransitionTracker {
+
+    @FunctionalInterface
+    public interface EnterHandler {
+        void onEnter(Player player, PermanentRegionManager.RegionSettings region);
+    }
+
+    private static final Candidate[] NONE = new Candidate[0];
+
+    private static final class Candidate {
+        final int handle;
+        final PermanentRegionManager.RegionSettings settings;
+        final ProtectedRegion region;
+        final boolean cuboid;
+        final int minX, minY, minZ, maxX, maxY, maxZ;
+
+        Candidate(int handle, PermanentRegionManager.RegionSettings settings, ProtectedRegion region) {
+            this.handle = handle;
+            this.settings = settings;
+            this.region = region;
+            this.cuboid = region.getType() == RegionType.CUBOID;
+            BlockVector3 lo = region.getMinimumPoint();
+            BlockVector3 hi = region.getMaximumPoint();
+            this.minX = lo.getX();
+            this.minY = lo.getY();
+            this.minZ = lo.getZ();
+            this.maxX = hi.getX();
+            this.maxY = hi.getY();
+            this.maxZ = hi.getZ();
+        }
+
+        boolean contains(int x, int y, int z, int margin) {
+            if (x < minX - margin || x > maxX + margin || y < minY - margin || y > maxY + margin
+                    || z < minZ - margin || z > maxZ + margin) return false;
+            return cuboid || region.contains(x, y, z);
+        }
+    }
+
+    private static final class PlayerState {
+        World world;
+        long chunk;
+        int generation = -1;
+        Candidate[] candidates = NONE;
+        long[] inside = new long[1];
+        // Last notification time per handle, for the cooldown
+        long[] notified = new long[64];
+    }
+
+    private final PermanentRegionManager permanentRegions;
+    private final RegionQueryService queries;
+    private final EnterHandler handler;
+
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final Map<World, Map<Long, Candidate[]>> chunks = new HashMap<>();
+    private final Map<UUID, PlayerState> players = new HashMap<>();
+
+    private int margin;
+    private long cooldownMillis;
+    private int generation;
+    private int regionVersion = -1;
+    private int queryVersion = -1;
+
+    public RegionTransitionTracker(PermanentRegionManager permanentRegions, RegionQueryService queries, EnterHandler handler) {
+        this.permanentRegions = permanentRegions;
+        this.queries = queries;
+        this.handler = handler;
+    }
+
+    /**
+     * Sets the hysteresis margin in blocks and the notification cooldown; 0 turns either off.
+     */
+    public synchronized void setLimits(int hysteresis, long cooldownMillis) {
+        this.margin = Math.max(0, hysteresis);
+        this.cooldownMillis = Math.max(0, cooldownMillis);
+        // Cached chunks include regions within the old margin
+        invalidate();
+    }
+
+    /**
+     * Updates the player's membership for the given block position and calls the handler
+     * for every permanent region just entered.
+     */
+    public synchronized void move(Player player, World world, int x, int y, int z) {
+        // Permanent regions changed, or WorldGuard regions were redefined
+        if (permanentRegions.getVersion() != regionVersion || queries.getVersion() != queryVersion) {
+            invalidate();
+            regionVersion = permanentRegions.getVersion();
+            queryVersion = queries.getVersion();
+        }
+
+        PlayerState state = players.get(player.getUniqueId());
+        if (state == null) {
+            state = new PlayerState();
+            players.put(player.getUniqueId(), state);
+        }
+
+        long chunk = chunkKey(x >> 4, z >> 4);
+        if (state.world != world || state.chunk != chunk || state.generation != generation) {
+            Candidate[] candidates = chunks.computeIfAbsent(world, w -> new HashMap<>())
+                    .computeIfAbsent(chunk, c -> resolve(world, x >> 4, z >> 4));
+            retain(state, candidates);
+            state.world = world;
+            state.chunk = chunk;
+            state.generation = generation;
+            state.candidates = candidates;
+        }
+
+        Candidate[] candidates = state.candidates;
+        for (int i = 0; i < candidates.length; i++) {
+            Candidate candidate = candidates[i];
+            int h = candidate.handle;
+            long bit = 1L << h;
+            boolean wasInside = (state.inside[h >> 6] & bit) != 0;
+            if (candidate.contains(x, y, z, wasInside ? margin : 0)) {
+                if (wasInside) continue;
+                state.inside[h >> 6] |= bit;
+                // The cooldown runs from the last notification, so suppressed entries don't extend it
+                long now = System.currentTimeMillis();
+                long last = state.notified[h];
+                if (last != 0 && now - last < cooldownMillis) continue;
+                state.notified[h] = now;
+                handler.onEnter(player, candidate.settings);
+            } else if (wasInside) {
+                state.inside[h >> 6] &= ~bit;
+            }
+        }
+    }
+
+    /**
+     * Forgets the player, e.g. on quit.
+     */
+    public synchronized void remove(Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Drops the cached chunk candidates; every player re-resolves on the next move.
+     */
+    public synchronized void invalidate() {
+        chunks.clear();
+        generation++;
+    }
+
+    public synchronized void clear() {
+        invalidate();
+        players.clear();
+    }
+
+    // Leaving the old candidates: clear membership of regions not among the new ones
+    private void retain(PlayerState state, Candidate[] candidates) {
+        if (state.inside.length <= (ids.size() - 1) >> 6) {
+            state.inside = Arrays.copyOf(state.inside, (ids.size() >> 6) + 1);
+            state.notified = Arrays.copyOf(state.notified, state.inside.length << 6);
+        }
+        long[] inside = state.inside;
+        for (int word = 0; word < inside.length; word++) {
+            long bits = inside[word];
+            while (bits != 0) {
+                int h = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (!containsHandle(candidates, h)) {
+                    inside[word] &= ~(1L << h);
+                }
+            }
+        }
+    }
+
+    private Candidate[] resolve(World world, int chunkX, int chunkZ) {
+        // Include regions within the hysteresis margin, so players leaving them are still checked
+        int minX = (chunkX << 4) - margin, maxX = (chunkX << 4) + 15 + margin;
+        int minZ = (chunkZ << 4) - margin, maxZ = (chunkZ << 4) + 15 + margin;
+
+        List<ProtectedRegion> regions = new ArrayList<>();
+        queries.queryBox(world.getName(), minX, Integer.MIN_VALUE, minZ, maxX, Integer.MAX_VALUE, maxZ, regions);
+
+        List<Candidate> found = null;
+        for (ProtectedRegion region : regions) {
+            // Only permanent regions notify
+            PermanentRegionManager.RegionSettings settings = permanentRegions.getRegion(world.getName(), region.getId());
+            if (settings == null) continue;
+
+            if (found == null) found = new ArrayList<>(4);
+            found.add(new Candidate(intern(settings.getKey()), settings, region));
+        }
+        if (found == null) return NONE;
+
+        Candidate[] candidates = found.toArray(NONE);
+        Arrays.sort(candidates, Comparator.comparingInt(c -> c.handle));
+        return candidates;
+    }
+
+    private int intern(String key) {
+        Integer handle = handles.get(key);
+        if (handle != null) return handle;
+        int next = ids.size();
+        ids.add(key);
+        handles.put(key, next);
+        return next;
+    }
+
+    private static boolean containsHandle(Candidate[] candidates, int handle) {
+        int lo = 0, hi = candidates.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int h = candidates[mid].handle;
+            if (h == handle) return true;
+            if (h < handle) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        return false;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
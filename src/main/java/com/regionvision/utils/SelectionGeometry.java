@@ -0,0 +1,112 @@
+package com.regionvision.utils;
+
+import java.util.Arrays;
+
+/**
+ * Wireframe of a selection kept as 13 independent parts: the 12 edges (without their ends)
+ * and the 8 corners. Changing the selection only rebuilds the edges whose end points moved;
+ * dragging one corner leaves the edges on the far side untouched, so an update costs the
+ * changed edges, not the whole box.
+ * <p>
+ * Produces the same points as {@link GeometryUtil#getCuboidWireframe}. Immutable.
+ */
+public final class SelectionGeometry {
+
+    /** Number of parts: 12 edges, then the corners. */
+    public static final int PARTS = 13;
+    private static final int CORNERS = 12;
+
+    // Corner bits: 1 = max X, 2 = max Y, 4 = max Z. Edge e runs from EDGE_FROM[e] to EDGE_TO[e]
+    private static final int[] EDGE_FROM = {0, 2, 4, 6, 0, 1, 4, 5, 0, 1, 2, 3};
+    private static final int[] EDGE_TO = {1, 3, 5, 7, 2, 3, 6, 7, 4, 5, 6, 7};
+
+    private final int[] bounds;
+    private final double step;
+    private final int streamingThreshold;
+    private final Wireframe[] parts;
+    private final int rebuilt;
+
+    private SelectionGeometry(int[] bounds, double step, int streamingThreshold, Wireframe[] parts, int rebuilt) {
+        this.bounds = bounds;
+        this.step = step;
+        this.streamingThreshold = streamingThreshold;
+        this.parts = parts;
+        this.rebuilt = rebuilt;
+    }
+
+    /**
+     * Builds the geometry of the block cuboid, reusing every edge of {@code previous} (may be null)
+     * that did not move. Edges holding more than {@code streamingThreshold} points are streamed.
+     */
+    public static SelectionGeometry build(SelectionGeometry previous, int minX, int minY, int minZ,
+                                          int maxX, int maxY, int maxZ, double step, int streamingThreshold) {
+        int[] bounds = {minX, minY, minZ, maxX + 1, maxY + 1, maxZ + 1};
+        double spacing = Math.max(step, GeometryUtil.MIN_STEP);
+        boolean reuse = previous != null && previous.step == spacing && previous.streamingThreshold == streamingThreshold;
+
+        Wireframe[] parts = new Wireframe[PARTS];
+        int rebuilt = 0;
+        for (int e = 0; e < CORNERS; e++) {
+            if (reuse && sameEdge(previous.bounds, bounds, e)) {
+                parts[e] = previous.parts[e];
+                continue;
+            }
+            parts[e] = buildEdge(bounds, e, spacing, streamingThreshold);
+            rebuilt++;
+        }
+
+        double[] vx = new double[8];
+        double[] vy = new double[8];
+        double[] vz = new double[8];
+        for (int corner = 0; corner < 8; corner++) {
+            vx[corner] = corner(bounds, corner, 0);
+            vy[corner] = corner(bounds, corner, 1);
+            vz[corner] = corner(bounds, corner, 2);
+        }
+        parts[CORNERS] = Wireframe.build(vx, vy, vz, new int[0], new int[0], spacing);
+        return new SelectionGeometry(bounds, spacing, streamingThreshold, parts, rebuilt);
+    }
+
+    /**
+     * Whether this geometry already shows the given block cuboid at the given step.
+     */
+    public boolean matches(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, double step, int streamingThreshold) {
+        return this.step == Math.max(step, GeometryUtil.MIN_STEP) && this.streamingThreshold == streamingThreshold
+                && Arrays.equals(bounds, new int[]{minX, minY, minZ, maxX + 1, maxY + 1, maxZ + 1});
+    }
+
+    public Wireframe getPart(int index) {
+        return parts[index];
+    }
+
+    /**
+     * Number of edges built for this geometry rather than taken over from the previous one.
+     */
+    public int getRebuiltEdges() {
+        return rebuilt;
+    }
+
+    private static boolean sameEdge(int[] a, int[] b, int edge) {
+        for (int axis = 0; axis < 3; axis++) {
+            if (corner(a, EDGE_FROM[edge], axis) != corner(b, EDGE_FROM[edge], axis)) return false;
+            if (corner(a, EDGE_TO[edge], axis) != corner(b, EDGE_TO[edge], axis)) return false;
+        }
+        return true;
+    }
+
+    private static Wireframe buildEdge(int[] bounds, int edge, double step, int streamingThreshold) {
+        int from = EDGE_FROM[edge];
+        int axis = Integer.numberOfTrailingZeros(EDGE_TO[edge] ^ from);
+        double length = bounds[axis + 3] - bounds[axis];
+        int count = (int) Wireframe.countPoints(length, step);
+        double dx = axis == 0 ? step : 0;
+        double dy = axis == 1 ? step : 0;
+        double dz = axis == 2 ? step : 0;
+        return Wireframe.line(corner(bounds, from, 0), corner(bounds, from, 1), corner(bounds, from, 2),
+                dx, dy, dz, count, step, streamingThreshold > 0 && count > streamingThreshold);
+    }
+
+    private static int corner(int[] bounds, int corner, int axis) {
+        return (corner & (1 << axis)) == 0 ? bounds[axis] : bounds[axis + 3];
+    }
+}
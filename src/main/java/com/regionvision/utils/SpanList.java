@@ -0,0 +1,75 @@
+package com.regionvision.utils;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of {@code [from, to)} index ranges into a {@link Wireframe}, each walked
+ * with its own stride. Culling writes the visible stretches here so drawing never
+ * copies coordinates; a stride above one is how coarser levels of detail skip points.
+ * Not thread-safe; keep one instance per render thread.
+ */
+public final class SpanList {
+
+    private int[] spans = new int[96];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends a dense range, merging it into the previous one when they touch.
+     */
+    public void add(int from, int to) {
+        add(from, to, 1);
+    }
+
+    /**
+     * Appends a range visiting every {@code stride}-th index starting at {@code from}.
+     */
+    public void add(int from, int to, int stride) {
+        if (to <= from) return;
+        int last = size * 3;
+        if (stride == 1 && size > 0 && spans[last - 1] == 1 && spans[last - 2] == from) {
+            spans[last - 2] = to;
+            return;
+        }
+        if (last == spans.length) {
+            spans = Arrays.copyOf(spans, spans.length * 2);
+        }
+        spans[last] = from;
+        spans[last + 1] = to;
+        spans[last + 2] = stride;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int from(int span) {
+        return spans[span * 3];
+    }
+
+    public int to(int span) {
+        return spans[span * 3 + 1];
+    }
+
+    public int stride(int span) {
+        return spans[span * 3 + 2];
+    }
+
+    /** Total number of points covered by all spans. */
+    public int pointCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int stride = spans[i * 3 + 2];
+            count += (spans[i * 3 + 1] - spans[i * 3] + stride - 1) / stride;
+        }
+        return count;
+    }
+}
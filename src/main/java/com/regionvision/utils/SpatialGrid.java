@@ -0,0 +1,171 @@
+package com.regionvision.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform X/Z grid over axis-aligned boxes, used to find the regions near a position
+ * without scanning all of them. Boxes covering too many cells are kept in a small
+ * overflow list that every query checks, so huge regions don't bloat the grid.
+ * <p>
+ * Updates are synchronized and may come from any thread. Queries read an immutable snapshot
+ * that is published copy-on-write: the first query after a change rebuilds it, every other
+ * query takes no lock and shares no mutable state, so render workers can query in parallel.
+ */
+public final class SpatialGrid<T> {
+
+    private static final int MAX_CELLS_PER_ENTRY = 1024;
+
+    private static final class Entry<T> {
+        final T value;
+        final double minX, minY, minZ, maxX, maxY, maxZ;
+        final int cellMinX, cellMinZ, cellMaxX, cellMaxZ;
+        final boolean oversized;
+
+        Entry(T value, double minX, double minY, double minZ, double maxX, double maxY, double maxZ, int shift) {
+            this.value = value;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.cellMinX = (int) Math.floor(minX) >> shift;
+            this.cellMinZ = (int) Math.floor(minZ) >> shift;
+            this.cellMaxX = (int) Math.floor(maxX) >> shift;
+            this.cellMaxZ = (int) Math.floor(maxZ) >> shift;
+            long cells = (long) (cellMaxX - cellMinX + 1) * (cellMaxZ - cellMinZ + 1);
+            this.oversized = cells > MAX_CELLS_PER_ENTRY;
+        }
+
+        boolean intersects(double x1, double y1, double z1, double x2, double y2, double z2) {
+            return minX <= x2 && maxX >= x1 && minY <= y2 && maxY >= y1 && minZ <= z2 && maxZ >= z1;
+        }
+    }
+
+    private final int shift;
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final List<Entry<T>> oversized = new ArrayList<>();
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+    // Null after a change until the next query publishes a new one
+    private volatile Snapshot<T> snapshot;
+
+    // Read-only copy of the cells; never modified once published
+    private record Snapshot<T>(Map<Long, Entry<T>[]> cells, Entry<T>[] oversized) {}
+
+    /**
+     * @param cellShift cell size as a power of two, e.g. 6 for 64-block cells
+     */
+    public SpatialGrid(int cellShift) {
+        this.shift = cellShift;
+    }
+
+    /**
+     * Inserts or moves a value to the given box (inclusive bounds).
+     */
+    public synchronized void put(T value, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        remove(value);
+        snapshot = null;
+        Entry<T> entry = new Entry<>(value, minX, minY, minZ, maxX, maxY, maxZ, shift);
+        entries.put(value, entry);
+        if (entry.oversized) {
+            oversized.add(entry);
+            return;
+        }
+        for (int cx = entry.cellMinX; cx <= entry.cellMaxX; cx++) {
+            for (int cz = entry.cellMinZ; cz <= entry.cellMaxZ; cz++) {
+                cells.computeIfAbsent(key(cx, cz), k -> new ArrayList<>(4)).add(entry);
+            }
+        }
+    }
+
+    public synchronized boolean remove(T value) {
+        Entry<T> entry = entries.remove(value);
+        if (entry == null) return false;
+        snapshot = null;
+        if (entry.oversized) {
+            oversized.remove(entry);
+            return true;
+        }
+        for (int cx = entry.cellMinX; cx <= entry.cellMaxX; cx++) {
+            for (int cz = entry.cellMinZ; cz <= entry.cellMaxZ; cz++) {
+                long key = key(cx, cz);
+                List<Entry<T>> list = cells.get(key);
+                if (list == null) continue;
+                list.remove(entry);
+                if (list.isEmpty()) cells.remove(key);
+            }
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        snapshot = null;
+        cells.clear();
+        oversized.clear();
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds every value whose box contains the point to {@code out}.
+     */
+    public void query(double x, double y, double z, Collection<? super T> out) {
+        query(x, y, z, x, y, z, out);
+    }
+
+    /**
+     * Adds every value whose box intersects the given box to {@code out}. Each value is reported once.
+     */
+    public void query(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, Collection<? super T> out) {
+        Snapshot<T> current = snapshot;
+        if (current == null) current = publish();
+
+        for (Entry<T> entry : current.oversized()) {
+            if (entry.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                out.add(entry.value);
+            }
+        }
+
+        int cellMinX = (int) Math.floor(minX) >> shift;
+        int cellMinZ = (int) Math.floor(minZ) >> shift;
+        int cellMaxX = (int) Math.floor(maxX) >> shift;
+        int cellMaxZ = (int) Math.floor(maxZ) >> shift;
+        for (int cx = cellMinX; cx <= cellMaxX; cx++) {
+            for (int cz = cellMinZ; cz <= cellMaxZ; cz++) {
+                Entry<T>[] list = current.cells().get(key(cx, cz));
+                if (list == null) continue;
+                for (Entry<T> entry : list) {
+                    // An entry spanning several queried cells is only reported in the first of them
+                    if (cx != Math.max(entry.cellMinX, cellMinX) || cz != Math.max(entry.cellMinZ, cellMinZ)) continue;
+                    if (entry.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                        out.add(entry.value);
+                    }
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Snapshot<T> publish() {
+        Snapshot<T> current = snapshot;
+        if (current != null) return current;
+        Map<Long, Entry<T>[]> copy = new HashMap<>(cells.size() * 2);
+        for (Map.Entry<Long, List<Entry<T>>> cell : cells.entrySet()) {
+            copy.put(cell.getKey(), cell.getValue().toArray(new Entry[0]));
+        }
+        current = new Snapshot<>(copy, oversized.toArray(new Entry[0]));
+        snapshot = current;
+        return current;
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,90 @@
+package com.regionvision.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel driven by ticks. Scheduling and cancelling are O(1); each
+ * {@link #advance(Consumer)} only looks at one slot. Used to expire visualizations
+ * without giving every one of them its own scheduler task.
+ * <p>
+ * Not thread-safe; drive it from a single thread.
+ */
+public final class TimerWheel<T> {
+
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadline;
+        private boolean cancelled;
+
+        private Timeout(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final List<Timeout<T>>[] slots;
+    private final int mask;
+    private long now;
+
+    /**
+     * @param slots number of slots, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int slots) {
+        int size = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        this.slots = new List[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new ArrayList<>(2);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a value to expire after the given number of ticks (at least one).
+     */
+    public Timeout<T> schedule(T value, long delayTicks) {
+        Timeout<T> timeout = new Timeout<>(value, now + Math.max(1, delayTicks));
+        slots[(int) (timeout.deadline & mask)].add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel one tick forward and hands every value that is now due to the consumer.
+     */
+    public void advance(Consumer<T> expired) {
+        now++;
+        List<Timeout<T>> slot = slots[(int) (now & mask)];
+        for (int i = slot.size() - 1; i >= 0; i--) {
+            Timeout<T> timeout = slot.get(i);
+            if (!timeout.cancelled && timeout.deadline > now) continue; // Due on a later lap
+
+            // Swap-remove; order within a slot doesn't matter
+            int last = slot.size() - 1;
+            slot.set(i, slot.get(last));
+            slot.remove(last);
+            if (!timeout.cancelled) {
+                expired.accept(timeout.value);
+            }
+        }
+    }
+
+    public void clear() {
+        for (List<Timeout<T>> slot : slots) {
+            slot.clear();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.regionvision.utils;
+
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+
+/**
+ * A viewer's visible volume: a sphere around the eye intersected with a cone
+ * along the look direction. Used to clip wireframe edges to the stretch the
+ * client would actually render before any particle is sent.
+ * <p>
+ * Instances are cheap and hold scratch state, so create one per viewer per pass
+ * and never share one between render threads.
+ */
+public final class ViewCone {
+
+    private static final double EPSILON = 1.0e-9;
+
+    private final double eyeX, eyeY, eyeZ;
+    private final double dirX, dirY, dirZ;
+    private final double radiusSquared;
+    private final double radius;
+    // cos(half angle); NaN disables the cone test and only the sphere is used
+    private final double cos;
+
+    // Scratch interval written by the clip helpers
+    private double lo, hi;
+
+    public ViewCone(double eyeX, double eyeY, double eyeZ, double dirX, double dirY, double dirZ,
+                    double radius, double halfAngleDegrees) {
+        this.eyeX = eyeX;
+        this.eyeY = eyeY;
+        this.eyeZ = eyeZ;
+        double len = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        boolean coneEnabled = halfAngleDegrees > 0 && halfAngleDegrees < 90 && len > EPSILON;
+        this.dirX = coneEnabled ? dirX / len : 0;
+        this.dirY = coneEnabled ? dirY / len : 0;
+        this.dirZ = coneEnabled ? dirZ / len : 0;
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+        this.cos = coneEnabled ? Math.cos(Math.toRadians(halfAngleDegrees)) : Double.NaN;
+    }
+
+    /**
+     * Creates a cone from an eye location. A half angle of 90 degrees or more
+     * disables direction culling.
+     */
+    public static ViewCone fromEye(Location eye, double radius, double halfAngleDegrees) {
+        Vector dir = eye.getDirection();
+        return new ViewCone(eye.getX(), eye.getY(), eye.getZ(), dir.getX(), dir.getY(), dir.getZ(), radius, halfAngleDegrees);
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public boolean contains(double x, double y, double z) {
+        double wx = x - eyeX;
+        double wy = y - eyeY;
+        double wz = z - eyeZ;
+        double ww = wx * wx + wy * wy + wz * wz;
+        if (ww > radiusSquared) return false;
+        if (Double.isNaN(cos)) return true;
+        double along = wx * dirX + wy * dirY + wz * dirZ;
+        return along >= 0 && along * along >= cos * cos * ww;
+    }
+
+    public double getEyeX() {
+        return eyeX;
+    }
+
+    public double getEyeY() {
+        return eyeY;
+    }
+
+    public double getEyeZ() {
+        return eyeZ;
+    }
+
+    /**
+     * Writes the visible point ranges of the wireframe into {@code out}.
+     * Vertices are tested individually, edges are clipped analytically so
+     * only the visible stretch of each line is iterated.
+     */
+    public void clip(Wireframe wireframe, SpanList out) {
+        clip(wireframe, 0, out);
+    }
+
+    /**
+     * Same as {@link #clip(Wireframe, SpanList)} at a level of detail: only every
+     * {@code 2^level}-th interior point of each edge is kept.
+     */
+    public void clip(Wireframe wireframe, int level, SpanList out) {
+        out.clear();
+        int stride = 1 << Math.min(level, Wireframe.MAX_LEVEL);
+
+        for (int v = 0; v < wireframe.getVertexCount(); v++) {
+            if (contains(wireframe.x(v), wireframe.y(v), wireframe.z(v))) {
+                out.add(v, v + 1);
+            }
+        }
+
+        double step = wireframe.getStep();
+        for (int e = 0; e < wireframe.getEdgeCount(); e++) {
+            int count = wireframe.getEdgePointCount(e);
+            if (count == 0) continue;
+
+            int a = wireframe.getEdgeFrom(e);
+            int b = wireframe.getEdgeTo(e);
+            double sx = wireframe.x(a), sy = wireframe.y(a), sz = wireframe.z(a);
+            double ux = wireframe.x(b) - sx, uy = wireframe.y(b) - sy, uz = wireframe.z(b) - sz;
+            double length = Math.sqrt(ux * ux + uy * uy + uz * uz);
+            ux /= length;
+            uy /= length;
+            uz /= length;
+
+            if (!clipSegment(sx - eyeX, sy - eyeY, sz - eyeZ, ux, uy, uz, length)) continue;
+
+            int kFrom = Math.max(1, (int) Math.ceil(lo / step - EPSILON));
+            int kTo = Math.min(count, (int) Math.floor(hi / step + EPSILON));
+            // Snap to the level's lattice so coarse points don't crawl as the viewer moves
+            kFrom = (kFrom + stride - 1) / stride * stride;
+            if (kFrom > kTo) continue;
+
+            int start = wireframe.getEdgeStart(e);
+            out.add(start + kFrom - 1, start + kTo, stride);
+        }
+    }
+
+    /**
+     * Clips {@code w + t * u}, {@code t in [0, length]} against the sphere and cone.
+     * The surviving parameter range is left in {@link #lo}/{@link #hi}.
+     */
+    private boolean clipSegment(double wx, double wy, double wz, double ux, double uy, double uz, double length) {
+        double uw = ux * wx + uy * wy + uz * wz;
+        double ww = wx * wx + wy * wy + wz * wz;
+
+        // Sphere: t^2 + 2t(u.w) + (w.w - r^2) <= 0
+        double disc = uw * uw - (ww - radiusSquared);
+        if (disc < 0) return false;
+        double root = Math.sqrt(disc);
+        lo = Math.max(0, -uw - root);
+        hi = Math.min(length, -uw + root);
+        if (lo > hi) return false;
+
+        if (Double.isNaN(cos)) return true;
+
+        double a = ux * dirX + uy * dirY + uz * dirZ;
+        double b = wx * dirX + wy * dirY + wz * dirZ;
+
+        // Forward half-space: b + a t >= 0 keeps only the nappe in front of the eye
+        if (Math.abs(a) < EPSILON) {
+            if (b < 0) return false;
+        } else if (a > 0) {
+            lo = Math.max(lo, -b / a);
+        } else {
+            hi = Math.min(hi, -b / a);
+        }
+        if (lo > hi) return false;
+
+        // Cone: (b + a t)^2 - cos^2 |w + t u|^2 >= 0
+        double c2 = cos * cos;
+        double qa = a * a - c2;
+        double qb = 2 * (a * b - c2 * uw);
+        double qc = b * b - c2 * ww;
+
+        if (Math.abs(qa) < EPSILON) {
+            if (Math.abs(qb) < EPSILON) return qc >= 0;
+            double r = -qc / qb;
+            if (qb > 0) lo = Math.max(lo, r);
+            else hi = Math.min(hi, r);
+            return lo <= hi;
+        }
+
+        double qd = qb * qb - 4 * qa * qc;
+        if (qa > 0) {
+            // Outside the roots; within the forward nappe at most one side survives
+            if (qd <= 0) return true;
+            double sq = Math.sqrt(qd);
+            double r1 = (-qb - sq) / (2 * qa);
+            double r2 = (-qb + sq) / (2 * qa);
+            boolean left = lo <= Math.min(hi, r1);
+            boolean right = Math.max(lo, r2) <= hi;
+            if (left && right) return true;
+            if (left) {
+                hi = Math.min(hi, r1);
+                return true;
+            }
+            if (right) {
+                lo = Math.max(lo, r2);
+                return true;
+            }
+            return false;
+        }
+
+        if (qd < 0) return false;
+        double sq = Math.sqrt(qd);
+        double r1 = (-qb + sq) / (2 * qa);
+        double r2 = (-qb - sq) / (2 * qa);
+        lo = Math.max(lo, Math.min(r1, r2));
+        hi = Math.min(hi, Math.max(r1, r2));
+        return lo <= hi;
+    }
+}
@@ -0,0 +1,444 @@
+package com.regionvision.utils;
+
+/**
+ * Compact, immutable particle geometry for a set of straight edges.
+ * <p>
+ * Vertices are stored exactly once, followed by the interior points of every edge.
+ * Coordinates are kept as float offsets from a double origin, one array per axis,
+ * so a point costs 12 bytes instead of a full {@code Location}.
+ * <p>
+ * Point layout: {@code [vertex 0 .. vertex V-1][edge 0 interior][edge 1 interior]...}
+ * where interior point {@code k} (1-based) of an edge lies at {@code start + k * step} along it.
+ * <p>
+ * Levels of detail share this storage: level {@code L} keeps only the interior points whose
+ * {@code k} is a multiple of {@code 2^L}, so coarser levels are strided walks over the same arrays.
+ * <p>
+ * A streaming wireframe keeps the same layout but stores only the vertices; interior points are
+ * computed from their edge when they are read, so its memory does not grow with the edge length.
+ */
+public final class Wireframe {
+
+    /** Coarsest level of detail; every 16th point. */
+    public static final int MAX_LEVEL = 4;
+
+    /** A wireframe without any points. */
+    public static final Wireframe EMPTY = build(new double[0], new double[0], new double[0], new int[0], new int[0], 1.0);
+
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(double x, double y, double z);
+    }
+
+    private final double originX;
+    private final double originY;
+    private final double originZ;
+    private final double maxX;
+    private final double maxY;
+    private final double maxZ;
+    private final double step;
+
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    // Total point count; larger than the arrays when streaming
+    private final int size;
+    private final boolean streaming;
+
+    private final int vertexCount;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    // Index of the first interior point of each edge, plus a trailing end marker
+    private final int[] edgeStart;
+    // Offset between two consecutive interior points of each edge
+    private final double[] edgeDx;
+    private final double[] edgeDy;
+    private final double[] edgeDz;
+    // Number of points drawn at each level of detail, vertices included
+    private final int[] levelSizes;
+
+    private Wireframe(double originX, double originY, double originZ, double maxX, double maxY, double maxZ, double step,
+                      float[] xs, float[] ys, float[] zs, int vertexCount,
+                      int[] edgeFrom, int[] edgeTo, int[] edgeStart, double[] edgeDx, double[] edgeDy, double[] edgeDz) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.step = step;
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.vertexCount = vertexCount;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeStart = edgeStart;
+        this.edgeDx = edgeDx;
+        this.edgeDy = edgeDy;
+        this.edgeDz = edgeDz;
+        this.size = edgeStart[edgeFrom.length];
+        this.streaming = xs.length < size;
+
+        this.levelSizes = new int[MAX_LEVEL + 1];
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            int count = vertexCount;
+            for (int e = 0; e < edgeFrom.length; e++) {
+                count += (edgeStart[e + 1] - edgeStart[e]) >> level;
+            }
+            levelSizes[level] = count;
+        }
+    }
+
+    /**
+     * Builds the packed geometry for the given vertices and edges.
+     * Edges reference vertices by index; every edge gets points spaced {@code step} apart.
+     */
+    public static Wireframe build(double[] vx, double[] vy, double[] vz, int[] from, int[] to, double step) {
+        return build(vx, vy, vz, from, to, step, false);
+    }
+
+    /**
+     * Builds a streaming geometry: same points as {@link #build}, but only the vertices are stored
+     * and every interior point is generated when it is read.
+     */
+    public static Wireframe stream(double[] vx, double[] vy, double[] vz, int[] from, int[] to, double step) {
+        return build(vx, vy, vz, from, to, step, true);
+    }
+
+    /**
+     * The points {@code a + k * d} for {@code k = 1..count}: the interior of one edge without its
+     * end vertices, so the edges of a shape can be built and replaced one at a time.
+     */
+    public static Wireframe line(double ax, double ay, double az, double dx, double dy, double dz,
+                                 int count, double step, boolean streaming) {
+        if (count <= 0) return EMPTY;
+        // First and last point become the vertices, the rest is the interior of one edge between them
+        double fx = ax + dx, fy = ay + dy, fz = az + dz;
+        double lx = ax + dx * count, ly = ay + dy * count, lz = az + dz * count;
+        int vertices = count == 1 ? 1 : 2;
+        int interior = count - vertices;
+        double ox = Math.min(fx, lx), oy = Math.min(fy, ly), oz = Math.min(fz, lz);
+
+        int stored = streaming ? vertices : count;
+        float[] xs = new float[stored];
+        float[] ys = new float[stored];
+        float[] zs = new float[stored];
+        xs[0] = (float) (fx - ox);
+        ys[0] = (float) (fy - oy);
+        zs[0] = (float) (fz - oz);
+        if (vertices == 2) {
+            xs[1] = (float) (lx - ox);
+            ys[1] = (float) (ly - oy);
+            zs[1] = (float) (lz - oz);
+        }
+        for (int k = 1, i = vertices; i < stored; k++, i++) {
+            xs[i] = (float) (fx - ox + dx * k);
+            ys[i] = (float) (fy - oy + dy * k);
+            zs[i] = (float) (fz - oz + dz * k);
+        }
+
+        if (vertices == 1) {
+            return new Wireframe(ox, oy, oz, fx, fy, fz, step, xs, ys, zs, 1,
+                    new int[0], new int[0], new int[]{1}, new double[0], new double[0], new double[0]);
+        }
+        return new Wireframe(ox, oy, oz, Math.max(fx, lx), Math.max(fy, ly), Math.max(fz, lz), step, xs, ys, zs, 2,
+                new int[]{0}, new int[]{1}, new int[]{2, 2 + interior},
+                new double[]{dx}, new double[]{dy}, new double[]{dz});
+    }
+
+    private static Wireframe build(double[] vx, double[] vy, double[] vz, int[] from, int[] to, double step, boolean streaming) {
+        int vertices = vx.length;
+        int edges = from.length;
+
+        double ox = Double.MAX_VALUE, oy = Double.MAX_VALUE, oz = Double.MAX_VALUE;
+        double mx = -Double.MAX_VALUE, my = -Double.MAX_VALUE, mz = -Double.MAX_VALUE;
+        for (int v = 0; v < vertices; v++) {
+            ox = Math.min(ox, vx[v]);
+            oy = Math.min(oy, vy[v]);
+            oz = Math.min(oz, vz[v]);
+            mx = Math.max(mx, vx[v]);
+            my = Math.max(my, vy[v]);
+            mz = Math.max(mz, vz[v]);
+        }
+        if (vertices == 0) {
+            ox = oy = oz = 0;
+            mx = my = mz = 0;
+        }
+
+        // First pass: size the arrays exactly, so nothing grows while filling
+        int[] edgeStart = new int[edges + 1];
+        double[] edgeDx = new double[edges];
+        double[] edgeDy = new double[edges];
+        double[] edgeDz = new double[edges];
+        long total = vertices;
+        for (int e = 0; e < edges; e++) {
+            int a = from[e];
+            int b = to[e];
+            double length = length(vx, vy, vz, a, b);
+            edgeStart[e] = (int) total;
+            total += interiorCount(length, step);
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many points for step " + step);
+            }
+            if (length > 0) {
+                edgeDx[e] = (vx[b] - vx[a]) / length * step;
+                edgeDy[e] = (vy[b] - vy[a]) / length * step;
+                edgeDz[e] = (vz[b] - vz[a]) / length * step;
+            }
+        }
+        edgeStart[edges] = (int) total;
+
+        int stored = streaming ? vertices : (int) total;
+        float[] xs = new float[stored];
+        float[] ys = new float[stored];
+        float[] zs = new float[stored];
+
+        for (int v = 0; v < vertices; v++) {
+            xs[v] = (float) (vx[v] - ox);
+            ys[v] = (float) (vy[v] - oy);
+            zs[v] = (float) (vz[v] - oz);
+        }
+
+        for (int e = 0; e < edges && !streaming; e++) {
+            int count = edgeStart[e + 1] - edgeStart[e];
+            double sx = vx[from[e]] - ox;
+            double sy = vy[from[e]] - oy;
+            double sz = vz[from[e]] - oz;
+
+            int i = edgeStart[e];
+            for (int k = 1; k <= count; k++, i++) {
+                xs[i] = (float) (sx + edgeDx[e] * k);
+                ys[i] = (float) (sy + edgeDy[e] * k);
+                zs[i] = (float) (sz + edgeDz[e] * k);
+            }
+        }
+
+        return new Wireframe(ox, oy, oz, mx, my, mz, step, xs, ys, zs, vertices,
+                from, to, edgeStart, edgeDx, edgeDy, edgeDz);
+    }
+
+    /**
+     * Number of points an edge of the given length gets, vertices excluded.
+     */
+    public static long countPoints(double length, double step) {
+        return interiorCount(length, step);
+    }
+
+    /**
+     * Number of points strictly between the two ends of an edge, matching the
+     * old {@code covered < length} walk minus the start vertex.
+     */
+    static int interiorCount(double length, double step) {
+        if (length <= 0) return 0;
+        return Math.max(0, (int) Math.ceil(length / step) - 1);
+    }
+
+    private static double length(double[] vx, double[] vy, double[] vz, int a, int b) {
+        double dx = vx[b] - vx[a];
+        double dy = vy[b] - vy[a];
+        double dz = vz[b] - vz[a];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Whether interior points are generated on demand rather than stored. */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /** Number of points actually held in memory; equals {@link #size()} unless streaming. */
+    public int getStoredPointCount() {
+        return xs.length;
+    }
+
+    public double getMinX() {
+        return originX;
+    }
+
+    public double getMinY() {
+        return originY;
+    }
+
+    public double getMinZ() {
+        return originZ;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Squared distance from a position to the bounding box of the geometry (0 when inside).
+     */
+    public double distanceSquared(double x, double y, double z) {
+        double dx = Math.max(0, Math.max(originX - x, x - maxX));
+        double dy = Math.max(0, Math.max(originY - y, y - maxY));
+        double dz = Math.max(0, Math.max(originZ - z, z - maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Squared distance from a position to the closest edge, used to pick a level of detail.
+     */
+    public double edgeDistanceSquared(double x, double y, double z) {
+        double best = Double.MAX_VALUE;
+        for (int e = 0; e < edgeFrom.length; e++) {
+            int a = edgeFrom[e];
+            int b = edgeTo[e];
+            double ax = x(a), ay = y(a), az = z(a);
+            double ux = x(b) - ax, uy = y(b) - ay, uz = z(b) - az;
+            double wx = x - ax, wy = y - ay, wz = z - az;
+            double uu = ux * ux + uy * uy + uz * uz;
+            double t = uu > 0 ? Math.max(0, Math.min(1, (wx * ux + wy * uy + wz * uz) / uu)) : 0;
+            double dx = wx - ux * t, dy = wy - uy * t, dz = wz - uz * t;
+            best = Math.min(best, dx * dx + dy * dy + dz * dz);
+        }
+        return best;
+    }
+
+    /**
+     * Number of points drawn at the given level of detail.
+     */
+    public int getLevelSize(int level) {
+        return levelSizes[Math.min(level, MAX_LEVEL)];
+    }
+
+    /**
+     * Coarsest level needed so at most {@code targetPoints} are drawn (capped at {@link #MAX_LEVEL}).
+     */
+    public int getLevelForBudget(int targetPoints) {
+        int level = 0;
+        while (level < MAX_LEVEL && levelSizes[level] > targetPoints) level++;
+        return level;
+    }
+
+    /**
+     * Writes spans covering the whole geometry at the given level of detail.
+     */
+    public void spans(int level, SpanList out) {
+        out.clear();
+        int stride = 1 << Math.min(level, MAX_LEVEL);
+        out.add(0, vertexCount);
+        for (int e = 0; e < edgeFrom.length; e++) {
+            // Interior point k sits at index start + k - 1, so the first multiple of the stride is at start + stride - 1
+            out.add(edgeStart[e] + stride - 1, edgeStart[e + 1], stride);
+        }
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeFrom.length;
+    }
+
+    public int getEdgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    public int getEdgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    /** Index of the first interior point of the edge. */
+    public int getEdgeStart(int edge) {
+        return edgeStart[edge];
+    }
+
+    /** Number of interior points on the edge. */
+    public int getEdgePointCount(int edge) {
+        return edgeStart[edge + 1] - edgeStart[edge];
+    }
+
+    public double x(int index) {
+        if (index < xs.length) return originX + xs[index];
+        int e = edgeOf(index);
+        return x(edgeFrom[e]) + edgeDx[e] * (index - edgeStart[e] + 1);
+    }
+
+    public double y(int index) {
+        if (index < ys.length) return originY + ys[index];
+        int e = edgeOf(index);
+        return y(edgeFrom[e]) + edgeDy[e] * (index - edgeStart[e] + 1);
+    }
+
+    public double z(int index) {
+        if (index < zs.length) return originZ + zs[index];
+        int e = edgeOf(index);
+        return z(edgeFrom[e]) + edgeDz[e] * (index - edgeStart[e] + 1);
+    }
+
+    /**
+     * Edge owning an interior point: the last edge starting at or before the index.
+     */
+    private int edgeOf(int index) {
+        int lo = 0;
+        int hi = edgeFrom.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (edgeStart[mid] <= index) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Feeds every point in {@code [from, to)} to the consumer without allocating.
+     */
+    public void forEachPoint(int from, int to, PointConsumer consumer) {
+        forEachPoint(from, to, 1, consumer);
+    }
+
+    public void forEachPoint(PointConsumer consumer) {
+        forEachPoint(0, size, 1, consumer);
+    }
+
+    public void forEachPoint(SpanList spans, PointConsumer consumer) {
+        for (int s = 0; s < spans.size(); s++) {
+            forEachPoint(spans.from(s), spans.to(s), spans.stride(s), consumer);
+        }
+    }
+
+    private void forEachPoint(int from, int to, int stride, PointConsumer consumer) {
+        int i = from;
+        int stored = Math.min(to, xs.length);
+        for (; i < stored; i += stride) {
+            consumer.accept(originX + xs[i], originY + ys[i], originZ + zs[i]);
+        }
+        if (i >= to) return;
+
+        // Streaming: walk the window edge by edge, generating points from the edge start
+        int e = edgeOf(i);
+        while (i < to) {
+            int end = Math.min(to, edgeStart[e + 1]);
+            int a = edgeFrom[e];
+            double ax = originX + xs[a], ay = originY + ys[a], az = originZ + zs[a];
+            double dx = edgeDx[e], dy = edgeDy[e], dz = edgeDz[e];
+            for (; i < end; i += stride) {
+                int k = i - edgeStart[e] + 1;
+                consumer.accept(ax + dx * k, ay + dy * k, az + dz * k);
+            }
+            e++;
+        }
+    }
+}
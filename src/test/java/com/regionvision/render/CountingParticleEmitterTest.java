@@ -0,0 +1,43 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.GeometryUtil;
+import com.regionvision.utils.SpanList;
+import org.bukkit.Color;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountingParticleEmitterTest {
+
+    private final Player viewer = TestPlayers.create();
+    private final ParticlePayload payload = new ParticlePayload(
+            GeometryUtil.getCuboidWireframe(new Vector(0, 0, 0), new Vector(3, 3, 3), 1.0), Color.RED, 1.0f);
+    private final CountingParticleEmitter emitter = new CountingParticleEmitter(new DiscardingParticleEmitter());
+
+    @Test
+    void countsWholePayloads() {
+        emitter.emit(viewer, payload);
+        emitter.emit(List.of(viewer, TestPlayers.create()), payload);
+        assertEquals(3L * payload.size(), emitter.getParticles());
+    }
+
+    @Test
+    void countsOnlyTheGivenSpans() {
+        SpanList spans = new SpanList();
+        spans.add(0, 5);
+        spans.add(10, 20, 3);
+        assertEquals(9, emitter.emit(viewer, payload, spans));
+        assertEquals(9, emitter.getParticles());
+    }
+
+    @Test
+    void resetStartsOver() {
+        emitter.emit(viewer, payload);
+        emitter.reset();
+        assertEquals(0, emitter.getParticles());
+    }
+}
@@ -0,0 +1,98 @@
+package com.regionvision.render;
+
+import org.bukkit.Color;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CuiRendererTest {
+
+    private static final String KEY = "shape";
+
+    private final RecordingCuiChannel channel = new RecordingCuiChannel();
+    private final CuiRenderer renderer = new CuiRenderer(channel);
+    private final Player viewer = TestPlayers.create();
+
+    private final RegionRenderer.Box first = new RegionRenderer.Box(0, 60, 0, 9, 70, 9, Color.fromRGB(0xFF0000));
+    private final RegionRenderer.Box second = new RegionRenderer.Box(10, 60, 0, 19, 70, 9, Color.fromRGB(0x00FF00));
+    private final RegionRenderer.Box third = new RegionRenderer.Box(-5, 0, -5, -1, 0, -1, Color.fromRGB(0x0000FF));
+
+    @BeforeEach
+    void markClient() {
+        channel.setListening(viewer, true);
+    }
+
+    @Test
+    void sendsEachBoxAsCuboid() {
+        renderer.show(viewer, KEY, List.of(first));
+
+        String id = idOf(channel.getMessages(viewer).get(0));
+        assertEquals(List.of(
+                "+s|cuboid|" + id,
+                "+col|#FF0000CC|#FF000040|#FF0000CC|#FF0000CC",
+                "+p|0|0|60|0|-1",
+                "+p|1|9|70|9|1100"), channel.getMessages(viewer));
+    }
+
+    @Test
+    void unchangedShapeSendsNothing() {
+        renderer.show(viewer, KEY, List.of(first, second));
+        channel.clear();
+
+        renderer.show(viewer, KEY, List.of(first, second));
+        assertTrue(channel.getMessages(viewer).isEmpty());
+    }
+
+    @Test
+    void changedBoxIsResentUnderItsId() {
+        renderer.show(viewer, KEY, List.of(first, second));
+        String secondId = idOf(channel.getMessages(viewer).get(4));
+        channel.clear();
+
+        renderer.show(viewer, KEY, List.of(first, third));
+        assertEquals(List.of(
+                "+s|cuboid|" + secondId,
+                "+col|#0000FFCC|#0000FF40|#0000FFCC|#0000FFCC",
+                "+p|0|-5|0|-5|-1",
+                "+p|1|-1|0|-1|25"), channel.getMessages(viewer));
+    }
+
+    @Test
+    void droppedBoxesAreOnlyCleared() {
+        renderer.show(viewer, KEY, List.of(first, second, third));
+        List<String> sent = channel.getMessages(viewer);
+        String secondId = idOf(sent.get(4));
+        String thirdId = idOf(sent.get(8));
+        channel.clear();
+
+        renderer.show(viewer, KEY, List.of(first));
+        assertEquals(List.of("+s|clear|" + thirdId, "+s|clear|" + secondId), channel.getMessages(viewer));
+    }
+
+    @Test
+    void hideClearsEveryBox() {
+        renderer.show(viewer, KEY, List.of(first, second));
+        List<String> sent = channel.getMessages(viewer);
+        String firstId = idOf(sent.get(0));
+        String secondId = idOf(sent.get(4));
+        channel.clear();
+
+        renderer.hide(viewer, KEY);
+        assertEquals(List.of("+s|clear|" + firstId, "+s|clear|" + secondId), channel.getMessages(viewer));
+
+        channel.clear();
+        renderer.hide(viewer, KEY);
+        assertEquals(0, channel.getMessageCount());
+    }
+
+    // The multi-region id of a "+s|cuboid|<id>" message
+    private static String idOf(String select) {
+        assertTrue(select.startsWith("+s|cuboid|"), select);
+        return select.substring("+s|cuboid|".length());
+    }
+}
@@ -0,0 +1,20 @@
+package com.regionvision.render;
+
+import com.regionvision.utils.SpanList;
+import org.bukkit.entity.Player;
+
+/**
+ * Stand-in sink that sends nothing and reports every particle it was given as sent.
+ */
+class DiscardingParticleEmitter implements ParticleEmitter {
+
+    @Override
+    public int emit(Player viewer, ParticlePayload payload, SpanList spans) {
+        return spans.pointCount();
+    }
+
+    @Override
+    public int emit(Player viewer, ParticlePayload payload) {
+        return payload.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.regionvision.render;
+
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Local stand-in for the CUI channel: players count as CUI clients once marked, and every
+ * message is kept instead of sent, so tests can check exactly what the renderer would send.
+ */
+final class RecordingCuiChannel implements CuiChannel {
+
+    private final Set<UUID> listening = new HashSet<>();
+    private final Map<UUID, List<String>> messages = new HashMap<>();
+
+    void setListening(Player player, boolean listening) {
+        if (listening) {
+            this.listening.add(player.getUniqueId());
+        } else {
+            this.listening.remove(player.getUniqueId());
+        }
+    }
+
+    @Override
+    public boolean isListening(Player player) {
+        return listening.contains(player.getUniqueId());
+    }
+
+    @Override
+    public void send(Player player, String message) {
+        messages.computeIfAbsent(player.getUniqueId(), id -> new ArrayList<>()).add(message);
+    }
+
+    /**
+     * Messages sent to the player so far, oldest first.
+     */
+    List<String> getMessages(Player player) {
+        return messages.getOrDefault(player.getUniqueId(), List.of());
+    }
+
+    int getMessageCount() {
+        int count = 0;
+        for (Collection<String> sent : messages.values()) count += sent.size();
+        return count;
+    }
+
+    void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package com.regionvision.render;
+
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * Online players with nothing behind them but an id; every other call returns null.
+ */
+final class TestPlayers {
+
+    private TestPlayers() {
+    }
+
+    static Player create() {
+        UUID id = UUID.randomUUID();
+        return (Player) Proxy.newProxyInstance(TestPlayers.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> id;
+                    case "isOnline" -> true;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> id.hashCode();
+                    case "toString" -> "TestPlayer[" + id + "]";
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,116 @@
+package com.regionvision.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryRegionStorageTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void replaysPutsAndRemovesFromTheJournal() throws IOException {
+        BinaryRegionStorage storage = storage(Integer.MAX_VALUE);
+        storage.load();
+        storage.write(List.of(region("world", "a", 1), region("world", "b", 2)), List.of());
+        storage.write(List.of(region("world", "a", 3)), List.of(StoredRegion.key("world", "b")));
+        storage.close();
+        assertFalse(storage.getSnapshotFile().exists());
+
+        BinaryRegionStorage reopened = storage(Integer.MAX_VALUE);
+        Map<String, StoredRegion> loaded = byKey(reopened.load());
+        assertEquals(Map.of("world:a", region("world", "a", 3)), loaded);
+        assertEquals(4, reopened.getJournalEntries());
+    }
+
+    @Test
+    void dropsATruncatedJournalTail() throws IOException {
+        BinaryRegionStorage storage = storage(Integer.MAX_VALUE);
+        storage.load();
+        storage.write(List.of(region("world", "a", 1)), List.of());
+        storage.write(List.of(region("world", "b", 2)), List.of());
+        storage.close();
+
+        // Cut the last record short, as a crash during the append would
+        File journal = storage.getJournalFile();
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        BinaryRegionStorage reopened = storage(Integer.MAX_VALUE);
+        assertEquals(Map.of("world:a", region("world", "a", 1)), byKey(reopened.load()));
+        // The damaged journal was folded into a snapshot, so appends start from a clean file
+        assertTrue(reopened.getSnapshotFile().exists());
+        assertFalse(journal.exists());
+
+        reopened.write(List.of(region("world", "c", 3)), List.of());
+        reopened.close();
+        assertEquals(2, byKey(storage(Integer.MAX_VALUE).load()).size());
+    }
+
+    @Test
+    void compactsOnceTheJournalReachesTheThresholdAndTheSnapshotSize() throws IOException {
+        BinaryRegionStorage storage = storage(3);
+        storage.load();
+        storage.write(List.of(region("world", "a", 1), region("world", "b", 2)), List.of());
+        assertEquals(2, storage.getJournalEntries());
+        assertFalse(storage.getSnapshotFile().exists());
+
+        storage.write(List.of(region("world", "c", 3)), List.of());
+        assertEquals(0, storage.getJournalEntries());
+        assertTrue(storage.getSnapshotFile().exists());
+        assertFalse(storage.getJournalFile().exists());
+
+        // Past the threshold, but still smaller than the snapshot of 10 regions
+        List<StoredRegion> many = new ArrayList<>();
+        for (int i = 0; i < 10; i++) many.add(region("world", "r" + i, i));
+        storage.replaceAll(many);
+        storage.write(List.of(region("world", "r0", 20), region("world", "r1", 21), region("world", "r2", 22)), List.of());
+        assertEquals(3, storage.getJournalEntries());
+        assertTrue(storage.getJournalFile().exists());
+        storage.close();
+
+        Map<String, StoredRegion> loaded = byKey(storage(3).load());
+        assertEquals(10, loaded.size());
+        assertEquals(region("world", "r2", 22), loaded.get("world:r2"));
+    }
+
+    @Test
+    void replaceAllWritesOnlyASnapshot() throws IOException {
+        BinaryRegionStorage storage = storage(Integer.MAX_VALUE);
+        storage.load();
+        storage.write(List.of(region("world", "old", 1)), List.of());
+        storage.replaceAll(List.of(region("world", "new", 2)));
+        storage.close();
+
+        assertFalse(storage.getJournalFile().exists());
+        assertEquals(Map.of("world:new", region("world", "new", 2)), byKey(storage(Integer.MAX_VALUE).load()));
+    }
+
+    private BinaryRegionStorage storage(int compactThreshold) {
+        return new BinaryRegionStorage(new File(directory, "regions.dat"), new File(directory, "regions.journal"), compactThreshold);
+    }
+
+    static StoredRegion region(String world, String id, int viewDistance) {
+        return new StoredRegion(id, world, 10, 20, 30, 0.5, viewDistance, "TITLE", "Welcome to " + id, true);
+    }
+
+    static Map<String, StoredRegion> byKey(Collection<StoredRegion> regions) {
+        Map<String, StoredRegion> map = new HashMap<>();
+        for (StoredRegion region : regions) map.put(region.key(), region);
+        return map;
+    }
+}
@@ -0,0 +1,95 @@
+package com.regionvision.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static com.regionvision.storage.BinaryRegionStorageTest.byKey;
+import static com.regionvision.storage.BinaryRegionStorageTest.region;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageMigrationTest {
+
+    @TempDir
+    File directory;
+
+    // Same id in two worlds, one of them with a dot in its name
+    private final List<StoredRegion> regions = List.of(
+            region("world", "plaza", 32),
+            region("my.world", "plaza", 64),
+            region("world_nether", "Fortress", 16));
+
+    @Test
+    void migratesYamlToBinary() throws IOException {
+        YamlRegionStorage yaml = yaml();
+        yaml.write(regions, List.of());
+
+        BinaryRegionStorage binary = binary();
+        assertEquals(3, StorageMigration.toBinary(yaml, binary));
+
+        assertFalse(yaml.getFile().exists());
+        assertTrue(new File(directory, "permanent_regions.yml.migrated").exists());
+        assertFalse(binary.getJournalFile().exists());
+
+        Map<String, StoredRegion> loaded = byKey(binary().load());
+        assertEquals(byKey(regions), loaded);
+        assertEquals(region("my.world", "plaza", 64), loaded.get("my.world:plaza"));
+        assertEquals(region("world_nether", "Fortress", 16), loaded.get("world_nether:fortress"));
+    }
+
+    @Test
+    void migratesBinaryBackToYaml() throws IOException {
+        BinaryRegionStorage binary = binary();
+        binary.load();
+        binary.write(regions, List.of());
+        binary.close();
+
+        YamlRegionStorage yaml = yaml();
+        assertEquals(3, StorageMigration.toYaml(binary, yaml));
+
+        // Switching back to binary later must migrate the YAML file again, not read these
+        assertFalse(binary.exists());
+        assertTrue(new File(directory, "permanent_regions.journal.migrated").exists());
+        assertEquals(byKey(regions), byKey(yaml().load()));
+    }
+
+    @Test
+    void leftoverTempFilesDontCountAsMigrated() throws IOException {
+        Files.writeString(new File(directory, "permanent_regions.dat.tmp").toPath(), "partial", StandardCharsets.UTF_8);
+        assertFalse(binary().exists());
+    }
+
+    @Test
+    void readsYamlWrittenWithUnescapedDottedKeys() throws IOException {
+        // As written before keys were escaped: the world name splits the key into nested sections
+        String nested = String.join("\n",
+                "my:",
+                "  world:plaza:",
+                "    region: plaza",
+                "    world: my.world",
+                "    view-distance: 64",
+                "");
+        Files.writeString(new File(directory, "permanent_regions.yml").toPath(), nested, StandardCharsets.UTF_8);
+
+        Map<String, StoredRegion> loaded = byKey(yaml().load());
+        assertEquals(1, loaded.size());
+        assertEquals(64, loaded.get("my.world:plaza").viewDistance());
+    }
+
+    private YamlRegionStorage yaml() {
+        return new YamlRegionStorage(new File(directory, "permanent_regions.yml"));
+    }
+
+    private BinaryRegionStorage binary() {
+        return new BinaryRegionStorage(new File(directory, "permanent_regions.dat"),
+                new File(directory, "permanent_regions.journal"), 1000);
+    }
+}
@@ -0,0 +1,97 @@
+package com.regionvision.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EdgeMergerTest {
+
+    @Test
+    void drawsASharedFaceOnceForTheHigherPriority() {
+        EdgeMerger merger = new EdgeMerger(2);
+        merger.addCuboid(0, 0, 0, 9, 9, 9, 0, 1);
+        merger.addCuboid(10, 0, 0, 19, 9, 9, 1, 2);
+        Wireframe[] groups = merger.build(1.0, 0);
+
+        Map<List<Integer>, Integer> drawn = new HashMap<>();
+        Map<List<Integer>, Integer> owner = new HashMap<>();
+        for (int g = 0; g < groups.length; g++) {
+            int group = g;
+            groups[g].forEachPoint((x, y, z) -> {
+                List<Integer> point = point(x, y, z);
+                drawn.merge(point, 1, Integer::sum);
+                owner.put(point, group);
+            });
+        }
+
+        // Every point on the edges of either cuboid, each exactly once
+        Set<List<Integer>> expected = new HashSet<>();
+        addEdgePoints(expected, 0, 0, 0, 10, 10, 10);
+        addEdgePoints(expected, 10, 0, 0, 20, 10, 10);
+        assertEquals(expected, drawn.keySet());
+        for (Map.Entry<List<Integer>, Integer> entry : drawn.entrySet()) {
+            assertEquals(1, (int) entry.getValue(), "point " + entry.getKey() + " drawn more than once");
+        }
+
+        // The shared face, its corners and the split points of the long edges go to the higher priority
+        for (Map.Entry<List<Integer>, Integer> entry : owner.entrySet()) {
+            if (entry.getKey().get(0) == 10) {
+                assertEquals(1, (int) entry.getValue(), "shared point " + entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    void lowerGroupWinsTheFaceWhenItsPriorityIsHigher() {
+        EdgeMerger merger = new EdgeMerger(2);
+        merger.addCuboid(0, 0, 0, 9, 9, 9, 0, 5);
+        merger.addCuboid(10, 0, 0, 19, 9, 9, 1, 2);
+        Wireframe[] groups = merger.build(1.0, 0);
+
+        int[] onFace = new int[2];
+        for (int g = 0; g < groups.length; g++) {
+            int group = g;
+            groups[g].forEachPoint((x, y, z) -> {
+                if (Math.round(x) == 10) onFace[group]++;
+            });
+        }
+        // 4 edges of 10 blocks around the face, one point per block
+        assertEquals(40, onFace[0]);
+        assertEquals(0, onFace[1]);
+    }
+
+    @Test
+    void mergesCoincidentEdgesOfTheSameGroup() {
+        EdgeMerger merger = new EdgeMerger(2);
+        merger.addCuboid(0, 0, 0, 9, 9, 9, 0, 0);
+        merger.addCuboid(0, 0, 0, 9, 9, 9, 0, 0);
+        Wireframe[] groups = merger.build(1.0, 0);
+
+        // 8 corners and 9 interior points on each of the 12 edges
+        assertEquals(8 + 12 * 9, groups[0].size());
+        assertNull(groups[1]);
+    }
+
+    private static List<Integer> point(double x, double y, double z) {
+        return List.of((int) Math.round(x), (int) Math.round(y), (int) Math.round(z));
+    }
+
+    // Integer points on the 12 edges of the box spanning [min, max]
+    private static void addEdgePoints(Set<List<Integer>> out, int x1, int y1, int z1, int x2, int y2, int z2) {
+        for (int x = x1; x <= x2; x++) {
+            for (int y = y1; y <= y2; y++) {
+                for (int z = z1; z <= z2; z++) {
+                    int onBounds = (x == x1 || x == x2 ? 1 : 0) + (y == y1 || y == y2 ? 1 : 0) + (z == z1 || z == z2 ? 1 : 0);
+                    if (onBounds >= 2) out.add(List.of(x, y, z));
+                }
+            }
+        }
+    }
+}
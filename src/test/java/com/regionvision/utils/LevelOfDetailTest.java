@@ -0,0 +1,69 @@
+package com.regionvision.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LevelOfDetailTest {
+
+    // 99 interior points at x = 1..99
+    private final Wireframe line = ViewConeTest.edge(0, 0, 0, 100, 0, 0);
+
+    @Test
+    void snapsCoarseLevelsToAFixedLattice() {
+        SpanList full = new SpanList();
+        SpanList coarse = new SpanList();
+        int start = line.getEdgeStart(0);
+
+        // The viewer drifts along the line, so the clipped stretch starts at a different point each time
+        for (double eyeX = 30; eyeX < 34; eyeX += 0.35) {
+            ViewCone cone = new ViewCone(eyeX, 0, 0, 0, 0, 1, 12.5, 90);
+            cone.clip(line, 0, full);
+            cone.clip(line, 2, coarse);
+
+            Set<Integer> visible = ViewConeTest.visible(full);
+            Set<Integer> kept = ViewConeTest.visible(coarse);
+            for (int i = start; i < line.size(); i++) {
+                boolean onLattice = (i - start + 1) % 4 == 0;
+                assertEquals(visible.contains(i) && onLattice, kept.contains(i), "point x=" + line.x(i) + " at eye " + eyeX);
+            }
+        }
+    }
+
+    @Test
+    void clippedCoarseLevelsUseTheSamePointsAsTheWholeLevel() {
+        SpanList whole = new SpanList();
+        line.spans(3, whole);
+        SpanList clipped = new SpanList();
+        new ViewCone(50, 0, 0, 0, 0, 1, 20, 90).clip(line, 3, clipped);
+
+        Set<Integer> all = ViewConeTest.visible(whole);
+        Set<Integer> kept = ViewConeTest.visible(clipped);
+        assertTrue(!kept.isEmpty());
+        assertTrue(all.containsAll(kept));
+    }
+
+    @Test
+    void selectsALevelPerDistanceThreshold() {
+        LevelOfDetail lod = new LevelOfDetail(List.of(10.0, 20.0), 0);
+        assertEquals(0, lod.select(line, 50, 5, 0));
+        assertEquals(1, lod.select(line, 50, 15, 0));
+        assertEquals(2, lod.select(line, 50, 25, 0));
+        assertEquals(0, LevelOfDetail.NONE.select(line, 50, 1_000, 0));
+    }
+
+    @Test
+    void thinsPastTheFirstThresholdToFitTheBudget() {
+        LevelOfDetail lod = new LevelOfDetail(List.of(10.0, 20.0), 20);
+        // Close by the budget doesn't apply
+        assertEquals(0, lod.select(line, 50, 5, 0));
+
+        int level = lod.select(line, 50, 15, 0);
+        assertTrue(level > 1);
+        assertTrue(line.getLevelSize(level) <= 20);
+    }
+}
@@ -0,0 +1,139 @@
+package com.regionvision.utils;
+
+import com.regionvision.managers.PermanentRegionManager;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Color;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegionTransitionTrackerTest {
+
+    private static final String WORLD = "world";
+
+    private final World world = world();
+    private final Player player = player();
+    private final List<String> entered = new ArrayList<>();
+    private final RegionQueryService queries = new RegionQueryService(null);
+
+    @Test
+    void notifiesOncePerEntry() {
+        RegionTransitionTracker tracker = tracker(cuboid("plaza", 0, 0, 0, 9, 9, 9));
+
+        tracker.move(player, world, -5, 5, 5);
+        assertEquals(List.of(), entered);
+        tracker.move(player, world, 0, 5, 5);
+        tracker.move(player, world, 5, 5, 5);
+        assertEquals(List.of("plaza"), entered);
+
+        tracker.move(player, world, 10, 5, 5);
+        tracker.move(player, world, 9, 5, 5);
+        assertEquals(List.of("plaza", "plaza"), entered);
+    }
+
+    @Test
+    void forgetsMembershipWhenLeavingThroughAnotherChunk() {
+        RegionTransitionTracker tracker = tracker(cuboid("plaza", 0, 0, 0, 9, 9, 9));
+
+        tracker.move(player, world, 5, 5, 5);
+        // Far away, where the region is no candidate at all
+        tracker.move(player, world, 500, 5, 500);
+        tracker.move(player, world, 5, 5, 5);
+        assertEquals(List.of("plaza", "plaza"), entered);
+    }
+
+    @Test
+    void ignoresRegionsThatAreNotPermanent() {
+        ProtectedRegion plain = cuboid("plain", 0, 0, 0, 9, 9, 9);
+        ProtectedRegion permanent = cuboid("permanent", 0, 0, 0, 9, 9, 9);
+        queries.update(WORLD, List.of(plain, permanent));
+        RegionTransitionTracker tracker = new RegionTransitionTracker(
+                PermanentRegionManager.detached(List.of(settings("permanent"))), queries,
+                (p, region) -> entered.add(region.regionId));
+
+        tracker.move(player, world, 5, 5, 5);
+        assertEquals(List.of("permanent"), entered);
+    }
+
+    @Test
+    void staysInsideWithinTheHysteresisMargin() {
+        RegionTransitionTracker tracker = tracker(cuboid("plaza", 0, 0, 0, 9, 9, 9));
+        tracker.setLimits(2, 0);
+
+        tracker.move(player, world, 9, 5, 5);
+        tracker.move(player, world, 11, 5, 5);
+        tracker.move(player, world, 9, 5, 5);
+        assertEquals(List.of("plaza"), entered);
+
+        tracker.move(player, world, 12, 5, 5);
+        tracker.move(player, world, 9, 5, 5);
+        assertEquals(List.of("plaza", "plaza"), entered);
+    }
+
+    @Test
+    void suppressesReentriesWithinTheCooldown() {
+        RegionTransitionTracker tracker = tracker(cuboid("plaza", 0, 0, 0, 9, 9, 9));
+        tracker.setLimits(0, 60_000);
+
+        tracker.move(player, world, 5, 5, 5);
+        tracker.move(player, world, 10, 5, 5);
+        tracker.move(player, world, 5, 5, 5);
+        assertEquals(List.of("plaza"), entered);
+    }
+
+    @Test
+    void picksUpRedefinedRegions() {
+        RegionTransitionTracker tracker = tracker(cuboid("plaza", 0, 0, 0, 9, 9, 9));
+        tracker.move(player, world, 20, 5, 5);
+        assertEquals(List.of(), entered);
+
+        // A new snapshot bumps the query version, so the cached chunk is resolved again
+        queries.update(WORLD, List.of(cuboid("plaza", 0, 0, 0, 29, 9, 9)));
+        tracker.move(player, world, 21, 5, 5);
+        assertEquals(List.of("plaza"), entered);
+    }
+
+    private RegionTransitionTracker tracker(ProtectedRegion region) {
+        queries.update(WORLD, List.of(region));
+        return new RegionTransitionTracker(PermanentRegionManager.detached(List.of(settings(region.getId()))),
+                queries, (p, settings) -> entered.add(settings.regionId));
+    }
+
+    private static PermanentRegionManager.RegionSettings settings(String id) {
+        return new PermanentRegionManager.RegionSettings(id, WORLD, Color.fromRGB(255, 255, 0), 0.5, 32, "NONE", "", true);
+    }
+
+    private static ProtectedRegion cuboid(String id, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return new ProtectedCuboidRegion(id, BlockVector3.at(minX, minY, minZ), BlockVector3.at(maxX, maxY, maxZ));
+    }
+
+    private static World world() {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> WORLD;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+    }
+
+    private static Player player() {
+        UUID id = UUID.randomUUID();
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> id;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> id.hashCode();
+                    default -> null;
+                });
+    }
+}
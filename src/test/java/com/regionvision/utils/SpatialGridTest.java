@@ -0,0 +1,91 @@
+package com.regionvision.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpatialGridTest {
+
+    private final SpatialGrid<String> grid = new SpatialGrid<>(4);
+
+    @Test
+    void reportsEntriesSpanningSeveralCellsOnce() {
+        grid.put("wide", 0, 0, 0, 100, 10, 100);
+        grid.put("small", 40, 0, 40, 41, 10, 41);
+
+        List<String> out = new ArrayList<>();
+        grid.query(-5, 0, -5, 200, 10, 200, out);
+        assertEquals(2, out.size());
+        assertEquals(Set.of("wide", "small"), new HashSet<>(out));
+
+        out.clear();
+        grid.query(50, 5, 50, out);
+        assertEquals(List.of("wide"), out);
+    }
+
+    @Test
+    void reportsOversizedEntries() {
+        grid.put("huge", -10_000, 0, -10_000, 10_000, 10, 10_000);
+        List<String> out = new ArrayList<>();
+        grid.query(5_000, 5, -5_000, out);
+        assertEquals(List.of("huge"), out);
+    }
+
+    @Test
+    void queriesSeeChangesMadeAfterEarlierQueries() {
+        grid.put("a", 0, 0, 0, 10, 10, 10);
+        List<String> out = new ArrayList<>();
+        grid.query(5, 5, 5, out);
+        assertEquals(List.of("a"), out);
+
+        grid.put("a", 100, 0, 100, 110, 10, 110);
+        out.clear();
+        grid.query(5, 5, 5, out);
+        assertEquals(List.of(), out);
+
+        grid.query(105, 5, 105, out);
+        assertEquals(List.of("a"), out);
+
+        grid.remove("a");
+        out.clear();
+        grid.query(105, 5, 105, out);
+        assertEquals(List.of(), out);
+    }
+
+    @Test
+    void concurrentQueriesAgree() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            grid.put("r" + i, i * 7, 0, i * 3, i * 7 + 40, 10, i * 3 + 40);
+        }
+        List<String> expected = new ArrayList<>();
+        grid.query(0, 0, 0, 2000, 10, 2000, expected);
+        assertEquals(200, expected.size());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                results.add(pool.submit(() -> {
+                    List<String> out = new ArrayList<>();
+                    for (int n = 0; n < 200; n++) {
+                        out.clear();
+                        grid.query(0, 0, 0, 2000, 10, 2000, out);
+                        if (out.size() != 200) return out.size();
+                    }
+                    return out.size();
+                }));
+            }
+            for (Future<Integer> result : results) assertEquals(200, (int) result.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.regionvision.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimerWheelTest {
+
+    private final TimerWheel<String> wheel = new TimerWheel<>(8);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void expiresOnTheScheduledTick() {
+        wheel.schedule("a", 3);
+        advance(2);
+        assertEquals(List.of(), expired);
+        advance(1);
+        assertEquals(List.of("a"), expired);
+    }
+
+    @Test
+    void waitsWholeLapsForDelaysLongerThanTheWheel() {
+        // Shares a slot with ticks 4 and 12 on the way
+        wheel.schedule("late", 20);
+        wheel.schedule("early", 4);
+
+        advance(4);
+        assertEquals(List.of("early"), expired);
+        advance(15);
+        assertEquals(List.of("early"), expired);
+        advance(1);
+        assertEquals(List.of("early", "late"), expired);
+    }
+
+    @Test
+    void skipsCancelledTimeouts() {
+        TimerWheel.Timeout<String> timeout = wheel.schedule("a", 2);
+        wheel.schedule("b", 2);
+        timeout.cancel();
+        advance(2);
+        assertEquals(List.of("b"), expired);
+
+        // The cancelled entry was dropped from its slot, not kept for the next lap
+        advance(8);
+        assertEquals(List.of("b"), expired);
+    }
+
+    @Test
+    void treatsZeroDelayAsOneTick() {
+        wheel.schedule("now", 0);
+        advance(1);
+        assertEquals(List.of("now"), expired);
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; i++) wheel.advance(expired::add);
+    }
+}
@@ -0,0 +1,120 @@
+package com.regionvision.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewConeTest {
+
+    private static final double SLACK = 1.0e-6;
+
+    @Test
+    void dropsEdgesBehindTheEye() {
+        ViewCone cone = new ViewCone(0, 0, 0, 0, 0, 1, 20, 45);
+        SpanList spans = new SpanList();
+
+        cone.clip(edge(0, 0, -12, 0, 0, -1), spans);
+        assertTrue(spans.isEmpty());
+
+        // Passing through the eye, which no point sits on: only the half in front survives
+        Wireframe through = edge(0, 0, -5.5, 0, 0, 5.5);
+        cone.clip(through, spans);
+        for (int i : visible(spans)) {
+            assertTrue(through.z(i) >= 0, "point behind the eye at z=" + through.z(i));
+        }
+        assertEquals(6, spans.pointCount());
+        assertMatchesPoints(cone, 45, through);
+    }
+
+    @Test
+    void keepsTheStretchInsideTheSphere() {
+        // 90 degrees turns the cone off, so only the sphere clips
+        ViewCone cone = new ViewCone(0, 0, 0, 0, 0, 1, 10, 90);
+        Wireframe line = edge(-30, 0, 5, 30, 0, 5);
+        SpanList spans = new SpanList();
+        cone.clip(line, spans);
+
+        // |x| <= sqrt(100 - 25)
+        assertEquals(17, spans.pointCount());
+        assertMatchesPoints(cone, 90, line);
+    }
+
+    @Test
+    void handlesEdgesTangentToTheCone() {
+        ViewCone cone = new ViewCone(0, 0, 0, 0, 0, 1, 50, 45);
+        SpanList spans = new SpanList();
+
+        // Touches the 45 degree surface at y = 0 only
+        Wireframe touching = edge(5, -5, 5, 5, 5, 5);
+        cone.clip(touching, spans);
+        assertTrue(spans.pointCount() <= 1);
+        assertMatchesPoints(cone, 45, touching);
+
+        cone.clip(edge(5.01, -5, 5, 5.01, 5, 5), spans);
+        assertTrue(spans.isEmpty());
+    }
+
+    @Test
+    void handlesEdgesParallelToTheConeSurface() {
+        ViewCone cone = new ViewCone(0, 0, 0, 0, 0, 1, 50, 45);
+        SpanList spans = new SpanList();
+
+        // (s - 1, 0, s) is inside from s = 0.5 on
+        Wireframe inside = edge(-1, 0, 0, 9, 0, 10);
+        cone.clip(inside, spans);
+        assertTrue(spans.pointCount() > 0);
+        assertMatchesPoints(cone, 45, inside);
+
+        // (s + 1, 0, s) never is
+        Wireframe outside = edge(1, 0, 0, 11, 0, 10);
+        cone.clip(outside, spans);
+        assertTrue(spans.isEmpty());
+        assertMatchesPoints(cone, 45, outside);
+    }
+
+    static Wireframe edge(double ax, double ay, double az, double bx, double by, double bz) {
+        return Wireframe.build(new double[]{ax, bx}, new double[]{ay, by}, new double[]{az, bz},
+                new int[]{0}, new int[]{1}, 1.0);
+    }
+
+    static Set<Integer> visible(SpanList spans) {
+        Set<Integer> indices = new HashSet<>();
+        for (int s = 0; s < spans.size(); s++) {
+            for (int i = spans.from(s); i < spans.to(s); i += spans.stride(s)) indices.add(i);
+        }
+        return indices;
+    }
+
+    /**
+     * The analytic clip agrees with testing every point, up to points within a hair of the
+     * surface. The eye is at the origin looking along +Z.
+     */
+    private static void assertMatchesPoints(ViewCone cone, double halfAngle, Wireframe wireframe) {
+        SpanList spans = new SpanList();
+        cone.clip(wireframe, spans);
+        Set<Integer> kept = visible(spans);
+
+        for (int i = 0; i < wireframe.size(); i++) {
+            double x = wireframe.x(i), y = wireframe.y(i), z = wireframe.z(i);
+            if (contains(cone.getRadius(), halfAngle, x, y, z, -SLACK)) {
+                assertTrue(kept.contains(i), "visible point " + i + " was clipped");
+            }
+            if (!contains(cone.getRadius(), halfAngle, x, y, z, SLACK)) {
+                assertFalse(kept.contains(i), "hidden point " + i + " was kept");
+            }
+        }
+    }
+
+    // The volume grown (slack > 0) or shrunk (slack < 0) a little in both radius and angle
+    private static boolean contains(double radius, double halfAngle, double x, double y, double z, double slack) {
+        double distance = Math.sqrt(x * x + y * y + z * z);
+        if (distance > radius + slack) return false;
+        if (halfAngle >= 90 || distance < SLACK) return true;
+        return Math.toDegrees(Math.acos(z / distance)) <= halfAngle + slack;
+    }
+}